@@ -0,0 +1,17 @@
+plugins {
+    id("me.champeau.jmh") version "0.6.8"
+}
+
+dependencies {
+    implementation(projects.core)
+    // Stands in for the parts of a session that benchmarks do not exercise
+    implementation(libs.mockito.core)
+}
+
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // Report allocations along with throughput
+    profilers.add("gc")
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.codec.MinecraftCodecHelper;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import org.geysermc.geyser.GeyserBootstrap;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.GeyserLogger;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.level.GeyserWorldManager;
+import org.geysermc.geyser.level.chunk.ChunkMemoryPool;
+import org.geysermc.geyser.level.physics.CollisionManager;
+import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.registry.BlockRegistries;
+import org.geysermc.geyser.registry.Registries;
+import org.geysermc.geyser.session.ChunkEncodingQueue;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.UpstreamSession;
+import org.geysermc.geyser.session.cache.BlobCache;
+import org.geysermc.geyser.session.cache.ChunkCache;
+import org.geysermc.geyser.session.cache.PistonCache;
+import org.geysermc.geyser.session.cache.PreferencesCache;
+import org.geysermc.geyser.session.cache.SubChunkCache;
+import org.geysermc.geyser.translator.inventory.item.ItemTranslator;
+import org.geysermc.geyser.translator.text.MessageTranslator;
+import org.geysermc.geyser.util.collection.ChunkPositionMap;
+import org.mockito.Answers;
+
+import java.lang.reflect.Field;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Loads the registries and creates sessions for benchmarks without starting Geyser. Only what the benchmarked code
+ * uses is real; the rest of the session is mocked.
+ */
+public final class BenchmarkEnvironment {
+    /**
+     * How many bits the global biome palette of the fixtures uses.
+     */
+    public static final int BIOME_GLOBAL_PALETTE = 6;
+    public static final int MIN_Y = -64;
+    public static final int HEIGHT = 384;
+
+    private static GeyserImpl geyser;
+
+    private BenchmarkEnvironment() {
+    }
+
+    public static synchronized void init() {
+        if (geyser != null) {
+            return;
+        }
+
+        GeyserLogger logger = mock(GeyserLogger.class);
+        GeyserConfiguration config = mock(GeyserConfiguration.class);
+        GeyserBootstrap bootstrap = mock(GeyserBootstrap.class);
+        when(bootstrap.getGeyserLogger()).thenReturn(logger);
+        when(bootstrap.getGeyserConfig()).thenReturn(config);
+        when(bootstrap.getResource(anyString())).thenAnswer(invocation ->
+                GeyserImpl.class.getClassLoader().getResourceAsStream(invocation.getArgument(0)));
+
+        GeyserImpl geyser = mock(GeyserImpl.class, withSettings().defaultAnswer(Answers.RETURNS_DEEP_STUBS).stubOnly());
+        when(geyser.getBootstrap()).thenReturn(bootstrap);
+        when(geyser.getLogger()).thenReturn(logger);
+        when(geyser.getConfig()).thenReturn(config);
+        when(geyser.getWorldManager()).thenReturn(new GeyserWorldManager());
+        when(geyser.getChunkMemoryPool()).thenReturn(new ChunkMemoryPool(0));
+        when(geyser.getSharedChunkStore()).thenReturn(null);
+        when(geyser.getChunkSectionCache()).thenReturn(null);
+        when(geyser.getChunkEncodingExecutor()).thenReturn(null);
+
+        try {
+            Field instance = GeyserImpl.class.getDeclaredField("instance");
+            instance.setAccessible(true);
+            instance.set(null, geyser);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set the Geyser instance", e);
+        }
+
+        Registries.init();
+        BlockRegistries.init();
+        ItemTranslator.init();
+        MessageTranslator.init();
+
+        BenchmarkEnvironment.geyser = geyser;
+    }
+
+    /**
+     * Creates a session on the default Bedrock version with a real chunk cache, piston cache and collision manager.
+     * Packets sent to it are dropped.
+     */
+    public static GeyserSession createSession() {
+        init();
+
+        // Stub only, so the mock does not record every packet that is sent
+        GeyserSession session = mock(GeyserSession.class, withSettings().stubOnly());
+        when(session.getGeyser()).thenReturn(geyser);
+
+        int protocolVersion = GameProtocol.DEFAULT_BEDROCK_CODEC.getProtocolVersion();
+        UpstreamSession upstream = mock(UpstreamSession.class, withSettings().stubOnly());
+        when(upstream.getProtocolVersion()).thenReturn(protocolVersion);
+        when(session.getUpstream()).thenReturn(upstream);
+        when(session.getBlockMappings()).thenReturn(BlockRegistries.BLOCKS.forVersion(protocolVersion));
+        when(session.getItemMappings()).thenReturn(Registries.ITEMS.forVersion(protocolVersion));
+        when(session.getCodecHelper()).thenReturn((MinecraftCodecHelper) new MinecraftProtocol().createHelper());
+        when(session.locale()).thenReturn("en_us");
+
+        // The fixtures use the same biome IDs as Bedrock
+        Int2IntMap biomeTranslations = new Int2IntOpenHashMap();
+        for (int i = 0; i < (1 << BIOME_GLOBAL_PALETTE); i++) {
+            biomeTranslations.put(i, i);
+        }
+        when(session.getBiomeTranslations()).thenReturn(biomeTranslations);
+        when(session.getBiomeGlobalPalette()).thenReturn(BIOME_GLOBAL_PALETTE);
+
+        // Disabled features
+        when(session.getChunkEncodingQueue()).thenReturn(mock(ChunkEncodingQueue.class, withSettings().stubOnly()));
+        when(session.getSubChunkCache()).thenReturn(mock(SubChunkCache.class, withSettings().stubOnly()));
+        when(session.getBlobCache()).thenReturn(mock(BlobCache.class, withSettings().stubOnly()));
+        when(session.getPreferencesCache()).thenReturn(mock(PreferencesCache.class, withSettings().stubOnly()));
+        when(session.getItemFrameCache()).thenReturn(new ChunkPositionMap<>());
+        CollisionManager collisionManager = new CollisionManager(session);
+        when(session.getCollisionManager()).thenReturn(collisionManager);
+
+        ChunkCache chunkCache = new ChunkCache(session);
+        chunkCache.setMinY(MIN_Y);
+        chunkCache.setHeightY(HEIGHT);
+        when(session.getChunkCache()).thenReturn(chunkCache);
+        PistonCache pistonCache = new PistonCache(session);
+        when(session.getPistonCache()).thenReturn(pistonCache);
+        return session;
+    }
+}
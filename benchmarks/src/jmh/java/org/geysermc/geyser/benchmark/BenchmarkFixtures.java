@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.codec.MinecraftCodecHelper;
+import com.github.steveice10.mc.protocol.data.game.chunk.ChunkSection;
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.github.steveice10.mc.protocol.data.game.level.LightUpdateData;
+import com.github.steveice10.mc.protocol.data.game.level.block.BlockEntityInfo;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundLevelChunkWithLightPacket;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.geysermc.geyser.level.block.BlockStateValues;
+import org.geysermc.geyser.registry.BlockRegistries;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Builds chunks that look like those of a vanilla overworld: deepslate and stone with ores and caves, dirt and grass
+ * on an uneven surface, and ponds of water with seagrass. They are generated instead of stored, so they always use
+ * the block state IDs of the current mappings.
+ */
+public final class BenchmarkFixtures {
+    private static final int PLAINS = 1;
+    private static final int RIVER = 7;
+    private static final int SEA_LEVEL = 62;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @return the height of the highest solid block at this position
+     */
+    public static int surfaceY(int x, int z) {
+        return 63 + ((x * 7 + z * 13) & 3);
+    }
+
+    private static boolean isPond(int x, int z) {
+        return (x & 15) < 5 && (z & 15) < 5;
+    }
+
+    public static ClientboundLevelChunkWithLightPacket createChunkPacket(int chunkX, int chunkZ) throws IOException {
+        MinecraftCodecHelper helper = (MinecraftCodecHelper) new MinecraftProtocol().createHelper();
+        int air = BlockStateValues.JAVA_AIR_ID;
+        int caveAir = state("minecraft:cave_air");
+        int bedrock = state("minecraft:bedrock");
+        int deepslate = state("minecraft:deepslate[axis=y]");
+        int stone = state("minecraft:stone");
+        int andesite = state("minecraft:andesite");
+        int gravel = state("minecraft:gravel");
+        int coalOre = state("minecraft:coal_ore");
+        int ironOre = state("minecraft:iron_ore");
+        int diamondOre = state("minecraft:deepslate_diamond_ore");
+        int dirt = state("minecraft:dirt");
+        int grass = state("minecraft:grass_block[snowy=false]");
+        int water = state("minecraft:water[level=0]");
+        int seagrass = state("minecraft:seagrass");
+
+        Random random = new Random(((long) chunkX << 32) ^ chunkZ);
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            for (int sectionY = 0; sectionY < BenchmarkEnvironment.HEIGHT >> 4; sectionY++) {
+                DataPalette blocks = DataPalette.createForChunk();
+                int blockCount = 0;
+                for (int y = 0; y < 16; y++) {
+                    int worldY = BenchmarkEnvironment.MIN_Y + (sectionY << 4) + y;
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            int worldX = (chunkX << 4) + x;
+                            int worldZ = (chunkZ << 4) + z;
+                            int surface = surfaceY(worldX, worldZ);
+                            int block;
+                            if (worldY == BenchmarkEnvironment.MIN_Y) {
+                                block = bedrock;
+                            } else if (isPond(worldX, worldZ) && worldY > SEA_LEVEL - 4) {
+                                if (worldY > SEA_LEVEL) {
+                                    block = air;
+                                } else if (worldY == SEA_LEVEL - 3) {
+                                    block = gravel;
+                                } else {
+                                    block = random.nextInt(4) == 0 ? seagrass : water;
+                                }
+                            } else if (worldY > surface) {
+                                block = air;
+                            } else if (worldY == surface) {
+                                block = grass;
+                            } else if (worldY > surface - 4) {
+                                block = dirt;
+                            } else if (worldY < 40 && random.nextInt(10) == 0) {
+                                block = caveAir;
+                            } else if (worldY < 0) {
+                                block = random.nextInt(200) == 0 ? diamondOre : deepslate;
+                            } else {
+                                int roll = random.nextInt(100);
+                                block = roll < 2 ? coalOre : roll < 3 ? ironOre : roll < 8 ? andesite : stone;
+                            }
+
+                            if (block != air) {
+                                blocks.set(x, y, z, block);
+                                if (block != caveAir) {
+                                    blockCount++;
+                                }
+                            }
+                        }
+                    }
+                }
+
+                DataPalette biomes = DataPalette.createForBiome(BenchmarkEnvironment.BIOME_GLOBAL_PALETTE);
+                for (int y = 0; y < 4; y++) {
+                    for (int z = 0; z < 4; z++) {
+                        for (int x = 0; x < 4; x++) {
+                            biomes.set(x, y, z, isPond((chunkX << 4) + (x << 2), (chunkZ << 4) + (z << 2)) ? RIVER : PLAINS);
+                        }
+                    }
+                }
+
+                helper.writeChunkSection(buf, new ChunkSection(blockCount, blocks, biomes));
+            }
+
+            byte[] chunkData = new byte[buf.readableBytes()];
+            buf.readBytes(chunkData);
+            LightUpdateData lightData = new LightUpdateData(new BitSet(), new BitSet(), new BitSet(), new BitSet(),
+                    Collections.emptyList(), Collections.emptyList(), true);
+            return new ClientboundLevelChunkWithLightPacket(chunkX, chunkZ, chunkData, new CompoundTag(""),
+                    new BlockEntityInfo[0], lightData);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * Reads the sections of a chunk packet back.
+     */
+    public static ChunkSection[] readSections(ClientboundLevelChunkWithLightPacket packet) throws IOException {
+        MinecraftCodecHelper helper = (MinecraftCodecHelper) new MinecraftProtocol().createHelper();
+        ByteBuf buf = Unpooled.wrappedBuffer(packet.getChunkData());
+        ChunkSection[] sections = new ChunkSection[BenchmarkEnvironment.HEIGHT >> 4];
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = helper.readChunkSection(buf, BenchmarkEnvironment.BIOME_GLOBAL_PALETTE);
+        }
+        return sections;
+    }
+
+    public static int state(String javaIdentifier) {
+        int state = BlockRegistries.JAVA_IDENTIFIERS.getOrDefault(javaIdentifier, -1);
+        if (state == -1) {
+            throw new IllegalArgumentException("Unknown block state " + javaIdentifier);
+        }
+        return state;
+    }
+}
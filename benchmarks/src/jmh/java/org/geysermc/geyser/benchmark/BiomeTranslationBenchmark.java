@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.ChunkSection;
+import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.level.BiomeTranslator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translates the biomes of every section of a chunk, which are mostly a single biome with a river in one corner.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BiomeTranslationBenchmark {
+    private GeyserSession session;
+    private ChunkSection[] sections;
+
+    @Setup
+    public void setup() throws IOException {
+        session = BenchmarkEnvironment.createSession();
+        sections = BenchmarkFixtures.readSections(BenchmarkFixtures.createChunkPacket(0, 0));
+    }
+
+    @Benchmark
+    public void toNewBedrockBiome(Blackhole blackhole) {
+        for (ChunkSection section : sections) {
+            BlockStorage biomes = BiomeTranslator.toNewBedrockBiome(session, section.getBiomeData());
+            blackhole.consume(biomes);
+        }
+    }
+}
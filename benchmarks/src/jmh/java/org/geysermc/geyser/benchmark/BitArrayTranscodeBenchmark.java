@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.level.chunk.bitarray.BitArray;
+import org.geysermc.geyser.level.chunk.bitarray.BitArrayVersion;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.geysermc.geyser.util.ChunkUtils.indexYZXtoXZY;
+
+/**
+ * Compares converting a Java chunk section to Bedrock's coordinate order one entry at a time against
+ * {@link BitArray#setAllFromYZX(long[], int, BitSet, int[])}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BitArrayTranscodeBenchmark {
+    @Param({"V1", "V2", "V3", "V4", "V5", "V6", "V8", "V16"})
+    public BitArrayVersion version;
+
+    private BitStorage javaData;
+    private BitArray bedrockData;
+    private BitSet waterloggedIds;
+    private int[] layer1Data;
+
+    @Setup
+    public void setup() {
+        int bits = version.getId();
+        Random random = new Random(0);
+
+        javaData = new BitStorage(bits, BlockStorage.SIZE);
+        for (int i = 0; i < BlockStorage.SIZE; i++) {
+            javaData.set(i, random.nextInt(1 << bits));
+        }
+
+        bedrockData = version.createArray(BlockStorage.SIZE);
+
+        waterloggedIds = new BitSet();
+        for (int i = 0; i < (1 << bits); i += 4) {
+            waterloggedIds.set(i);
+        }
+        layer1Data = new int[BlockStorage.SIZE >> 5];
+    }
+
+    @Benchmark
+    public BitArray perIndex() {
+        for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+            bedrockData.set(indexYZXtoXZY(yzx), javaData.get(yzx));
+        }
+        return bedrockData;
+    }
+
+    @Benchmark
+    public BitArray bulk() {
+        bedrockData.setAllFromYZX(javaData.getData(), javaData.getBitsPerEntry());
+        return bedrockData;
+    }
+
+    @Benchmark
+    public int[] perIndexWaterlogged() {
+        Arrays.fill(layer1Data, 0);
+        for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+            int paletteId = javaData.get(yzx);
+            int xzy = indexYZXtoXZY(yzx);
+            bedrockData.set(xzy, paletteId);
+
+            if (waterloggedIds.get(paletteId)) {
+                layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
+            }
+        }
+        return layer1Data;
+    }
+
+    @Benchmark
+    public int[] bulkWaterlogged() {
+        bedrockData.setAllFromYZX(javaData.getData(), javaData.getBitsPerEntry(), waterloggedIds, layer1Data);
+        return layer1Data;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.ChunkSection;
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.registry.type.BlockMappings;
+import org.geysermc.geyser.session.GeyserSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.geysermc.geyser.util.ChunkUtils.indexYZXtoXZY;
+
+/**
+ * Fills a {@link BlockStorage} the way a section without a cached translation is filled, and serializes it.
+ * The blocks are those of an underground stone section with ores and caves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockStorageBenchmark {
+    private int airId;
+    /**
+     * The Bedrock runtime ID of each block, in Java's YZX order.
+     */
+    private final int[] runtimeIds = new int[BlockStorage.SIZE];
+    private BlockStorage filled;
+    private ByteBuf buffer;
+
+    @Setup
+    public void setup() throws IOException {
+        GeyserSession session = BenchmarkEnvironment.createSession();
+        BlockMappings mappings = session.getBlockMappings();
+        airId = mappings.getBedrockAirId();
+
+        // Y 16 to 31
+        ChunkSection section = BenchmarkFixtures.readSections(BenchmarkFixtures.createChunkPacket(0, 0))[5];
+        DataPalette javaData = section.getChunkData();
+        for (int i = 0; i < BlockStorage.SIZE; i++) {
+            runtimeIds[i] = mappings.getBedrockBlockId(javaData.get(i & 0xF, i >> 8, (i >> 4) & 0xF));
+        }
+
+        filled = idFor();
+        buffer = ByteBufAllocator.DEFAULT.buffer(filled.estimateNetworkSize());
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public BlockStorage idFor() {
+        BlockStorage storage = new BlockStorage(airId);
+        for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+            storage.setFullBlock(indexYZXtoXZY(yzx), runtimeIds[yzx]);
+        }
+        return storage;
+    }
+
+    @Benchmark
+    public ByteBuf writeToNetwork() {
+        buffer.clear();
+        filled.writeToNetwork(buffer);
+        return buffer;
+    }
+}
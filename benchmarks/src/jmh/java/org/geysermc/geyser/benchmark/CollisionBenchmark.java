@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.ChunkSection;
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.nukkitx.math.vector.Vector3d;
+import com.nukkitx.math.vector.Vector3f;
+import org.geysermc.geyser.entity.type.player.SessionPlayerEntity;
+import org.geysermc.geyser.level.physics.CollisionManager;
+import org.geysermc.geyser.session.GeyserSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Corrects the movement of a player walking over uneven ground, which makes them collide with and step up blocks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CollisionBenchmark {
+    private CollisionManager collisionManager;
+    private final Vector3d walking = Vector3d.from(0.2, -0.0784, 0.15);
+    private final Vector3d falling = Vector3d.from(0, -0.5, 0);
+
+    @Setup
+    public void setup() throws IOException {
+        GeyserSession session = BenchmarkEnvironment.createSession();
+        for (int x = -1; x <= 1; x++) {
+            for (int z = -1; z <= 1; z++) {
+                session.getChunkCache().addToCache(x, z, chunkData(x, z), 0);
+            }
+        }
+
+        Vector3f position = Vector3f.from(8.5f, BenchmarkFixtures.surfaceY(8, 8) + 1, 8.5f);
+        SessionPlayerEntity player = mock(SessionPlayerEntity.class, withSettings().stubOnly());
+        when(player.getPosition()).thenReturn(position.add(0, 1.62f, 0));
+        when(player.getBoundingBoxHeight()).thenReturn(1.8f);
+        when(player.isOnGround()).thenReturn(true);
+        when(session.getPlayerEntity()).thenReturn(player);
+        when(session.getEyeHeight()).thenReturn(1.62f);
+
+        collisionManager = session.getCollisionManager();
+        collisionManager.updatePlayerBoundingBox(position);
+    }
+
+    private static DataPalette[] chunkData(int x, int z) throws IOException {
+        ChunkSection[] sections = BenchmarkFixtures.readSections(BenchmarkFixtures.createChunkPacket(x, z));
+        DataPalette[] palettes = new DataPalette[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            palettes[i] = sections[i].getChunkData();
+        }
+        return palettes;
+    }
+
+    @Benchmark
+    public Vector3d walking() {
+        // One movement per tick, so the blocks around the player are looked up again every time
+        collisionManager.invalidateNeighbourhood();
+        return collisionManager.correctPlayerMovement(walking, true, false);
+    }
+
+    @Benchmark
+    public Vector3d falling() {
+        collisionManager.invalidateNeighbourhood();
+        return collisionManager.correctPlayerMovement(falling, true, false);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.ItemStack;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.IntTag;
+import com.github.steveice10.opennbt.tag.builtin.ListTag;
+import com.github.steveice10.opennbt.tag.builtin.ShortTag;
+import com.github.steveice10.opennbt.tag.builtin.StringTag;
+import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.inventory.item.ItemTranslator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translates a plain stack of blocks, and a renamed, enchanted and damaged tool like those found in player inventories.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ItemTranslationBenchmark {
+    private GeyserSession session;
+    private ItemStack plainItem;
+    private ItemStack namedEnchantedItem;
+
+    @Setup
+    public void setup() {
+        session = BenchmarkEnvironment.createSession();
+
+        plainItem = new ItemStack(session.getItemMappings().getMapping("minecraft:cobblestone").getJavaId(), 64);
+
+        CompoundTag tag = new CompoundTag("");
+        tag.put(new IntTag("Damage", 120));
+
+        CompoundTag display = new CompoundTag("display");
+        display.put(new StringTag("Name", "{\"text\":\"Excalibur\",\"color\":\"gold\",\"italic\":false}"));
+        ListTag lore = new ListTag("Lore");
+        lore.add(new StringTag("", "{\"text\":\"Pulled from the stone\",\"color\":\"gray\"}"));
+        lore.add(new StringTag("", "{\"text\":\"\",\"extra\":[{\"text\":\"Owner: \",\"color\":\"gray\"},{\"text\":\"DoctorMad9952\",\"color\":\"aqua\"}]}"));
+        display.put(lore);
+        tag.put(display);
+
+        ListTag enchantments = new ListTag("Enchantments");
+        enchantments.add(enchantment("minecraft:sharpness", 5));
+        enchantments.add(enchantment("minecraft:unbreaking", 3));
+        enchantments.add(enchantment("minecraft:looting", 3));
+        tag.put(enchantments);
+
+        namedEnchantedItem = new ItemStack(session.getItemMappings().getMapping("minecraft:diamond_sword").getJavaId(), 1, tag);
+    }
+
+    private static CompoundTag enchantment(String id, int level) {
+        CompoundTag enchantment = new CompoundTag("");
+        enchantment.put(new StringTag("id", id));
+        enchantment.put(new ShortTag("lvl", (short) level));
+        return enchantment;
+    }
+
+    @Benchmark
+    public ItemData plain() {
+        return ItemTranslator.translateToBedrock(session, plainItem);
+    }
+
+    @Benchmark
+    public ItemData namedEnchanted() {
+        // The translator changes the tag, so give it a copy like a freshly decoded packet would
+        return ItemTranslator.translateToBedrock(session, new ItemStack(namedEnchantedItem.getId(),
+                namedEnchantedItem.getAmount(), namedEnchantedItem.getNbt().clone()));
+    }
+}
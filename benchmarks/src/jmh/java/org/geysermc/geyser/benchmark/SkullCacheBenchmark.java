@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.benchmark;
+
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.math.vector.Vector3i;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.entity.type.player.SessionPlayerEntity;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.cache.SkullCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * A player walking through a hub decorated with 10,000 custom skulls, which makes the visible skulls be chosen again
+ * on every step. No skull gets an entity, so only the culling itself is measured and not the packets it causes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SkullCacheBenchmark {
+    private static final int SKULLS = 10_000;
+    /**
+     * The skulls are spread over a square of this many blocks, 32 by 32 chunks.
+     */
+    private static final int AREA = 512;
+    private static final float STEP = 2.5f;
+
+    private SkullCache skullCache;
+    private Vector3f position = Vector3f.from(0.5f, 65, AREA / 2f);
+    private float direction = STEP;
+
+    @Setup
+    public void setup() {
+        GeyserSession session = BenchmarkEnvironment.createSession();
+        GeyserConfiguration config = session.getGeyser().getConfig();
+        when(config.getMaxVisibleCustomSkulls()).thenReturn(0);
+        when(config.getCustomSkullRenderDistance()).thenReturn(32);
+
+        SessionPlayerEntity player = mock(SessionPlayerEntity.class, withSettings().stubOnly());
+        when(player.getPosition()).thenAnswer(invocation -> position);
+        when(session.getPlayerEntity()).thenReturn(player);
+
+        skullCache = new SkullCache(session);
+        int blockState = BenchmarkFixtures.state("minecraft:player_head[rotation=0]");
+        Random random = new Random(0);
+        for (int i = 0; i < SKULLS; i++) {
+            Vector3i skullPosition = Vector3i.from(random.nextInt(AREA), 60 + random.nextInt(20), random.nextInt(AREA));
+            skullCache.putSkull(skullPosition, "", blockState);
+        }
+        skullCache.updateVisibleSkulls();
+    }
+
+    @Benchmark
+    public void walk() {
+        if (position.getX() + direction < 0 || position.getX() + direction > AREA) {
+            direction = -direction;
+        }
+        position = position.add(direction, 0, 0);
+        skullCache.updateVisibleSkulls();
+    }
+}
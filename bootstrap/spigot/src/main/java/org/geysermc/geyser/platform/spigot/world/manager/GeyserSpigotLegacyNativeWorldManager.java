@@ -71,6 +71,14 @@ public class GeyserSpigotLegacyNativeWorldManager extends GeyserSpigotNativeWorl
         return oldToNewBlockId.getOrDefault(nativeBlockId, nativeBlockId);
     }
 
+    @Override
+    public void getBlocks(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        super.getBlocks(session, minX, minY, minZ, sizeX, sizeY, sizeZ, blocks);
+        for (int i = 0; i < sizeX * sizeY * sizeZ; i++) {
+            blocks[i] = oldToNewBlockId.getOrDefault(blocks[i], blocks[i]);
+        }
+    }
+
     @Override
     public boolean isLegacy() {
         return true;
@@ -26,6 +26,7 @@
 package org.geysermc.geyser.platform.spigot.world.manager;
 
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.geysermc.geyser.adapters.spigot.SpigotAdapters;
@@ -34,6 +35,8 @@ import org.geysermc.geyser.level.block.BlockStateValues;
 import org.geysermc.geyser.session.GeyserSession;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
 public class GeyserSpigotNativeWorldManager extends GeyserSpigotWorldManager {
     protected final SpigotWorldAdapter adapter;
 
@@ -51,6 +54,25 @@ public class GeyserSpigotNativeWorldManager extends GeyserSpigotWorldManager {
         return adapter.getBlockAt(player.getWorld(), x, y, z);
     }
 
+    @Override
+    public void getBlocks(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        // The adapter already reads block states straight from the chunk palettes; only resolve the player once
+        Player player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+        if (player == null) {
+            Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockStateValues.JAVA_AIR_ID);
+            return;
+        }
+        World world = player.getWorld();
+        int i = 0;
+        for (int y = minY; y < minY + sizeY; y++) {
+            for (int x = minX; x < minX + sizeX; x++) {
+                for (int z = minZ; z < minZ + sizeZ; z++) {
+                    blocks[i++] = adapter.getBlockAt(world, x, y, z);
+                }
+            }
+        }
+    }
+
     @Nullable
     @Override
     public String[] getBiomeIdentifiers(boolean withTags) {
@@ -30,9 +30,11 @@ import com.nukkitx.nbt.NbtMap;
 import com.nukkitx.nbt.NbtMapBuilder;
 import com.nukkitx.nbt.NbtType;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Lectern;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.BookMeta;
@@ -46,13 +48,21 @@ import org.geysermc.geyser.translator.inventory.LecternInventoryTranslator;
 import org.geysermc.geyser.util.BlockEntityUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The base world manager to use when there is no supported NMS revision
  */
 public class GeyserSpigotWorldManager extends WorldManager {
     private final Plugin plugin;
+    /**
+     * Block data to Java block state, so the block data string only has to be built and looked up once per state.
+     * Bukkit creates a new BlockData instance on every call, but they are equal if their state is.
+     */
+    private final Map<BlockData, Integer> blockDataToId = new ConcurrentHashMap<>();
 
     public GeyserSpigotWorldManager(Plugin plugin) {
         this.plugin = plugin;
@@ -73,8 +83,47 @@ public class GeyserSpigotWorldManager extends WorldManager {
         return getBlockNetworkId(world.getBlockAt(x, y, z));
     }
 
+    @Override
+    public void getBlocks(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockStateValues.JAVA_AIR_ID);
+        Player bukkitPlayer;
+        if ((bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
+            return;
+        }
+        World world = bukkitPlayer.getWorld();
+        // World#getMinHeight does not exist on older versions, but the dimension the client knows about is the same
+        int worldMinY = session.getChunkCache().getChunkMinY() << 4;
+        int maxX = minX + sizeX - 1;
+        int maxY = Math.min(minY + sizeY - 1, worldMinY + (session.getChunkCache().getChunkHeightY() << 4) - 1);
+        int maxZ = minZ + sizeZ - 1;
+
+        // Look up every chunk once instead of once per block
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                    continue;
+                }
+                Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+
+                int startX = Math.max(minX, chunkX << 4);
+                int endX = Math.min(maxX, (chunkX << 4) + 15);
+                int startZ = Math.max(minZ, chunkZ << 4);
+                int endZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                for (int y = Math.max(minY, worldMinY); y <= maxY; y++) {
+                    for (int x = startX; x <= endX; x++) {
+                        int index = ((y - minY) * sizeX + (x - minX)) * sizeZ + (startZ - minZ);
+                        for (int z = startZ; z <= endZ; z++) {
+                            blocks[index++] = getBlockNetworkId(chunk.getBlock(x & 0xF, y, z & 0xF));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     public int getBlockNetworkId(Block block) {
-        return BlockRegistries.JAVA_IDENTIFIERS.getOrDefault(block.getBlockData().getAsString(), BlockStateValues.JAVA_AIR_ID);
+        return blockDataToId.computeIfAbsent(block.getBlockData(),
+                blockData -> BlockRegistries.JAVA_IDENTIFIERS.getOrDefault(blockData.getAsString(), BlockStateValues.JAVA_AIR_ID));
     }
 
     @Override
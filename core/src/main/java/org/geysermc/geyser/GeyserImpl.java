@@ -70,11 +70,16 @@ import org.geysermc.geyser.entity.EntityDefinitions;
 import org.geysermc.geyser.event.GeyserEventBus;
 import org.geysermc.geyser.extension.GeyserExtensionManager;
 import org.geysermc.geyser.level.WorldManager;
+import org.geysermc.geyser.level.chunk.ChunkMemoryPool;
+import org.geysermc.geyser.level.chunk.ChunkSectionCache;
+import org.geysermc.geyser.level.chunk.SharedChunkStore;
 import org.geysermc.geyser.network.ConnectorServerEventHandler;
+import org.geysermc.geyser.network.LoginCryptoService;
+import org.geysermc.geyser.network.PingRateLimiter;
 import org.geysermc.geyser.pack.ResourcePack;
+import org.geysermc.geyser.ping.PingResponseCache;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.Registries;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.PendingMicrosoftAuthentication;
 import org.geysermc.geyser.session.SessionManager;
@@ -96,6 +101,7 @@ import java.security.Key;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.regex.Matcher;
@@ -142,6 +148,35 @@ public class GeyserImpl implements GeyserApi {
 
     private ScheduledExecutorService scheduledThread;
 
+    /**
+     * Shared between all sessions - null if disabled in the config.
+     */
+    private ChunkSectionCache chunkSectionCache;
+    /**
+     * Translates chunks off of the player threads - null if disabled in the config.
+     */
+    private ExecutorService chunkEncodingExecutor;
+    /**
+     * Holds the block data of the chunk caches of all sessions.
+     */
+    private ChunkMemoryPool chunkMemoryPool;
+    /**
+     * Shares cached chunks between sessions in the same world - null if disabled in the config.
+     */
+    private SharedChunkStore sharedChunkStore;
+    /**
+     * Verifies logins and sets up encryption away from the network threads.
+     */
+    private LoginCryptoService loginCryptoService;
+    /**
+     * Answers Bedrock pings and queries without waiting for the ping passthrough.
+     */
+    private PingResponseCache pingResponseCache;
+    /**
+     * Decides which pings and queries are answered, and counts them.
+     */
+    private PingRateLimiter pingRateLimiter;
+
     private BedrockServer bedrockServer;
     private final PlatformType platformType;
     private final GeyserBootstrap bootstrap;
@@ -235,8 +270,6 @@ public class GeyserImpl implements GeyserApi {
         GeyserLogger logger = bootstrap.getGeyserLogger();
         GeyserConfiguration config = bootstrap.getGeyserConfig();
 
-        ScoreboardUpdater.init();
-
         SkinProvider.registerCacheImageTask(this);
 
         ResourcePack.loadPacks();
@@ -272,6 +305,24 @@ public class GeyserImpl implements GeyserApi {
 
         this.newsHandler = new NewsHandler(BRANCH, this.buildNumber());
 
+        if (config.getSharedChunkSectionCacheSize() > 0) {
+            this.chunkSectionCache = new ChunkSectionCache(config.getSharedChunkSectionCacheSize());
+        } else {
+            this.chunkSectionCache = null;
+        }
+
+        if (config.getChunkEncodingThreads() > 0) {
+            this.chunkEncodingExecutor = Executors.newFixedThreadPool(config.getChunkEncodingThreads(), new DefaultThreadFactory("Geyser chunk encoding thread"));
+        } else {
+            this.chunkEncodingExecutor = null;
+        }
+
+        this.chunkMemoryPool = new ChunkMemoryPool(config.getChunkCacheMemoryBudget());
+        this.sharedChunkStore = config.isShareCachedChunks() ? new SharedChunkStore(chunkMemoryPool) : null;
+        this.loginCryptoService = new LoginCryptoService(config.getLoginCryptoThreads());
+        this.pingResponseCache = new PingResponseCache(this, config.getPingCacheTtl());
+        this.pingRateLimiter = new PingRateLimiter(config.getPingRateLimit(), config.getPingRateLimitGroups());
+
         CooldownUtils.setDefaultShowCooldown(config.getShowCooldown());
         DimensionUtils.changeBedrockNetherId(config.isAboveBedrockNetherBuilding()); // Apply End dimension ID workaround to Nether
 
@@ -542,6 +593,15 @@ public class GeyserImpl implements GeyserApi {
         }
 
         scheduledThread.shutdown();
+        if (chunkEncodingExecutor != null) {
+            chunkEncodingExecutor.shutdown();
+        }
+        if (loginCryptoService != null) {
+            loginCryptoService.shutdown();
+        }
+        if (pingResponseCache != null) {
+            pingResponseCache.shutdown();
+        }
         bedrockServer.close();
         if (skinUploader != null) {
             skinUploader.close();
@@ -549,6 +609,10 @@ public class GeyserImpl implements GeyserApi {
         newsHandler.shutdown();
         this.commandManager().getCommands().clear();
 
+        if (chunkSectionCache != null) {
+            chunkSectionCache.clear();
+        }
+
         ResourcePack.PACKS.clear();
 
         this.eventBus.fire(new GeyserShutdownEvent(this.extensionManager, this.eventBus));
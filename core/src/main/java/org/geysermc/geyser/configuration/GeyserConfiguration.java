@@ -67,6 +67,12 @@ public interface GeyserConfiguration {
 
     int getPingPassthroughInterval();
 
+    int getPingCacheTtl();
+
+    int getPingRateLimit();
+
+    List<String> getPingRateLimitGroups();
+
     boolean isForwardPlayerPing();
 
     int getMaxPlayers();
@@ -175,6 +181,30 @@ public interface GeyserConfiguration {
 
     int getScoreboardPacketThreshold();
 
+    int getSharedChunkSectionCacheSize();
+
+    boolean isEnableClientBlobCache();
+
+    boolean isUseSubChunkRequests();
+
+    int getChunkEncodingThreads();
+
+    int getMaxPendingChunks();
+
+    int getChunkCacheMaxChunks();
+
+    int getChunkCacheMemoryBudget();
+
+    boolean isShareCachedChunks();
+
+    int getUpstreamBatchWindow();
+
+    int getUpstreamBatchMaxPackets();
+
+    int getLoginCryptoThreads();
+
+    int getPlayerListSkinsPerSecond();
+
     // if u have offline mode enabled pls be safe
     boolean isEnableProxyConnections();
 
@@ -90,6 +90,15 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("ping-passthrough-interval")
     private int pingPassthroughInterval = 3;
 
+    @JsonProperty("ping-cache-ttl")
+    private int pingCacheTtl = 1000;
+
+    @JsonProperty("ping-rate-limit")
+    private int pingRateLimit = 0;
+
+    @JsonProperty("ping-rate-limit-groups")
+    private List<String> pingRateLimitGroups = Collections.emptyList();
+
     @JsonProperty("forward-player-ping")
     private boolean forwardPlayerPing = false;
 
@@ -326,6 +335,42 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("scoreboard-packet-threshold")
     private int scoreboardPacketThreshold = 10;
 
+    @JsonProperty("shared-chunk-section-cache-size")
+    private int sharedChunkSectionCacheSize = 32;
+
+    @JsonProperty("enable-client-blob-cache")
+    private boolean enableClientBlobCache = false;
+
+    @JsonProperty("use-sub-chunk-requests")
+    private boolean useSubChunkRequests = false;
+
+    @JsonProperty("chunk-encoding-threads")
+    private int chunkEncodingThreads = 0;
+
+    @JsonProperty("max-pending-chunks")
+    private int maxPendingChunks = 64;
+
+    @JsonProperty("chunk-cache-max-chunks")
+    private int chunkCacheMaxChunks = 0;
+
+    @JsonProperty("chunk-cache-memory-budget")
+    private int chunkCacheMemoryBudget = 0;
+
+    @JsonProperty("share-cached-chunks")
+    private boolean shareCachedChunks = false;
+
+    @JsonProperty("upstream-batch-window")
+    private int upstreamBatchWindow = 0;
+
+    @JsonProperty("upstream-batch-max-packets")
+    private int upstreamBatchMaxPackets = 256;
+
+    @JsonProperty("login-crypto-threads")
+    private int loginCryptoThreads = 2;
+
+    @JsonProperty("player-list-skins-per-second")
+    private int playerListSkinsPerSecond = 0;
+
     @JsonProperty("enable-proxy-connections")
     private boolean enableProxyConnections = false;
 
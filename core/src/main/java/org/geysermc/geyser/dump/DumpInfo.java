@@ -28,6 +28,7 @@ package org.geysermc.geyser.dump;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.CacheStats;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
@@ -42,11 +43,18 @@ import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.api.GeyserApi;
 import org.geysermc.geyser.api.extension.Extension;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.level.chunk.ChunkMemoryPool;
+import org.geysermc.geyser.level.chunk.ChunkSectionCache;
+import org.geysermc.geyser.level.chunk.SharedChunkStore;
 import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.network.LoginCryptoService;
+import org.geysermc.geyser.network.PingRateLimiter;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.UpstreamPacketBatcher;
 import org.geysermc.geyser.text.AsteriskSerializer;
 import org.geysermc.geyser.util.CpuUtils;
 import org.geysermc.geyser.util.FileUtils;
+import org.geysermc.geyser.util.Histogram;
 import org.geysermc.geyser.util.WebUtils;
 
 import java.io.File;
@@ -80,6 +88,7 @@ public class DumpInfo {
     private final BootstrapDumpInfo bootstrapInfo;
     private final FlagsInfo flagsInfo;
     private final List<ExtensionInfo> extensionInfo;
+    private final PerformanceInfo performanceInfo;
 
     public DumpInfo(boolean addLog) {
         this.versionInfo = new VersionInfo();
@@ -133,6 +142,8 @@ public class DumpInfo {
         for (Extension extension : GeyserApi.api().extensionManager().extensions()) {
             this.extensionInfo.add(new ExtensionInfo(extension.isEnabled(), extension.name(), extension.description().version(), extension.description().apiVersion(), extension.description().main(), extension.description().authors()));
         }
+
+        this.performanceInfo = new PerformanceInfo();
     }
 
     @Getter
@@ -297,6 +308,82 @@ public class DumpInfo {
         public List<String> authors;
     }
 
+    /**
+     * Statistics of the caches and pools that are shared between sessions.
+     */
+    @Getter
+    public static class PerformanceInfo {
+        private final CacheInfo chunkSectionCache;
+        private long clientBlobCacheHits;
+        private long clientBlobCacheMisses;
+        private final long chunkCacheUsedBytes;
+        private final long chunkCachePooledBytes;
+        private int cachedChunks;
+        private final int sharedChunks;
+        private final HistogramInfo upstreamBatchSizes;
+        private final HistogramInfo upstreamFlushLatencies;
+        private final HistogramInfo loginLatencies;
+        private final long pingsServed;
+        private final long pingsDropped;
+
+        PerformanceInfo() {
+            ChunkSectionCache chunkSectionCache = GeyserImpl.getInstance().getChunkSectionCache();
+            this.chunkSectionCache = chunkSectionCache == null ? null : new CacheInfo(chunkSectionCache.size(), chunkSectionCache.stats());
+
+            ChunkMemoryPool chunkMemoryPool = GeyserImpl.getInstance().getChunkMemoryPool();
+            this.chunkCacheUsedBytes = chunkMemoryPool.getUsedBytes();
+            this.chunkCachePooledBytes = chunkMemoryPool.getPooledBytes();
+            SharedChunkStore sharedChunkStore = GeyserImpl.getInstance().getSharedChunkStore();
+            this.sharedChunks = sharedChunkStore == null ? 0 : sharedChunkStore.size();
+            this.upstreamBatchSizes = new HistogramInfo(UpstreamPacketBatcher.BATCH_SIZES);
+            this.upstreamFlushLatencies = new HistogramInfo(UpstreamPacketBatcher.FLUSH_LATENCIES);
+            this.loginLatencies = new HistogramInfo(LoginCryptoService.LOGIN_LATENCIES);
+            PingRateLimiter pingRateLimiter = GeyserImpl.getInstance().getPingRateLimiter();
+            this.pingsServed = pingRateLimiter.getServed();
+            this.pingsDropped = pingRateLimiter.getDropped();
+
+            for (GeyserSession session : GeyserImpl.getInstance().getSessionManager().getAllSessions()) {
+                this.clientBlobCacheHits += session.getBlobCache().getHits();
+                this.clientBlobCacheMisses += session.getBlobCache().getMisses();
+                this.cachedChunks += session.getChunkCache().getChunkCount();
+            }
+        }
+    }
+
+    @Getter
+    public static class CacheInfo {
+        private final long size;
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        CacheInfo(long size, CacheStats stats) {
+            this.size = size;
+            this.hitCount = stats.hitCount();
+            this.missCount = stats.missCount();
+            this.evictionCount = stats.evictionCount();
+        }
+    }
+
+    @Getter
+    public static class HistogramInfo {
+        private final long count;
+        private final double mean;
+        private final long max;
+        private final long p50;
+        private final long p99;
+        private final Map<String, Long> buckets;
+
+        HistogramInfo(Histogram histogram) {
+            this.count = histogram.getCount();
+            this.mean = histogram.getMean();
+            this.max = histogram.getMax();
+            this.p50 = histogram.getPercentile(50);
+            this.p99 = histogram.getPercentile(99);
+            this.buckets = histogram.getBuckets();
+        }
+    }
+
     @Getter
     @AllArgsConstructor
     public static class GitInfo {
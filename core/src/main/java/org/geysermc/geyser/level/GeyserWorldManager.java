@@ -34,6 +34,8 @@ import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.cache.ChunkCache;
 import org.geysermc.geyser.translator.inventory.LecternInventoryTranslator;
 
+import java.util.Arrays;
+
 public class GeyserWorldManager extends WorldManager {
     private final Object2ObjectMap<String, String> gameruleCache = new Object2ObjectOpenHashMap<>();
 
@@ -46,6 +48,16 @@ public class GeyserWorldManager extends WorldManager {
         return BlockStateValues.JAVA_AIR_ID;
     }
 
+    @Override
+    public void getBlocks(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        ChunkCache chunkCache = session.getChunkCache();
+        if (chunkCache != null) {
+            chunkCache.getBlocks(minX, minY, minZ, sizeX, sizeY, sizeZ, blocks);
+        } else {
+            Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockStateValues.JAVA_AIR_ID);
+        }
+    }
+
     @Override
     public boolean hasOwnChunkCache() {
         // This implementation can only fetch data from the session chunk cache
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+package org.geysermc.geyser.level;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * The full contents of a map, translated to Bedrock colors. Canvases are never changed, and sessions seeing the same
+ * map with the same contents share the same canvas, so map art is only translated once.
+ */
+public final class MapCanvas {
+    public static final int SIZE = 128;
+
+    /**
+     * Every canvas still used by a session, by map ID and contents.
+     */
+    private static final Cache<Key, MapCanvas> CANVASES = CacheBuilder.newBuilder()
+            .weakValues()
+            .build();
+
+    private final byte[] colorIds;
+    private final int[] colors;
+
+    private MapCanvas(byte[] colorIds, int[] colors) {
+        this.colorIds = colorIds;
+        this.colors = colors;
+    }
+
+    /**
+     * @param colorIds the Java color IDs of the whole map. Must not be changed afterwards.
+     */
+    public static MapCanvas of(long mapId, byte[] colorIds) {
+        if (colorIds.length != SIZE * SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE * SIZE + " colors, got " + colorIds.length);
+        }
+        return intern(mapId, colorIds, () -> {
+            int[] colors = new int[colorIds.length];
+            for (int i = 0; i < colorIds.length; i++) {
+                colors[i] = MapColor.toARGB(colorIds[i]);
+            }
+            return colors;
+        });
+    }
+
+    private static MapCanvas intern(long mapId, byte[] colorIds, Supplier<int[]> colors) {
+        Key key = new Key(mapId, Hashing.murmur3_128().hashBytes(colorIds));
+        try {
+            return CANVASES.get(key, () -> new MapCanvas(colorIds, colors.get()));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * @param colorIds the Java color IDs of the changed area, row by row
+     * @return this canvas with the given area replaced, or null if the area does not fit on the map
+     */
+    @Nullable
+    public MapCanvas update(long mapId, int x, int y, int columns, int rows, byte[] colorIds) {
+        if (x < 0 || y < 0 || columns < 0 || rows < 0 || x + columns > SIZE || y + rows > SIZE || colorIds.length < columns * rows) {
+            return null;
+        }
+
+        byte[] newColorIds = this.colorIds.clone();
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(colorIds, row * columns, newColorIds, (y + row) * SIZE + x, columns);
+        }
+        return intern(mapId, newColorIds, () -> {
+            int[] newColors = this.colors.clone();
+            for (int row = 0; row < rows; row++) {
+                int offset = (y + row) * SIZE + x;
+                for (int column = 0; column < columns; column++) {
+                    newColors[offset + column] = MapColor.toARGB(colorIds[row * columns + column]);
+                }
+            }
+            return newColors;
+        });
+    }
+
+    /**
+     * @return the smallest area containing every pixel that differs between these canvases as
+     * {@code {x, y, columns, rows}}, or null if they are the same
+     */
+    public int @Nullable [] changedArea(MapCanvas other) {
+        if (this == other) {
+            return null;
+        }
+
+        int minX = SIZE, minY = SIZE, maxX = -1, maxY = -1;
+        for (int y = 0; y < SIZE; y++) {
+            int offset = y * SIZE;
+            for (int x = 0; x < SIZE; x++) {
+                if (colorIds[offset + x] != other.colorIds[offset + x]) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = y;
+                }
+            }
+        }
+        if (maxX == -1) {
+            return null;
+        }
+        return new int[] {minX, minY, maxX - minX + 1, maxY - minY + 1};
+    }
+
+    /**
+     * @return the Bedrock colors of the whole map. Must not be changed.
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * @return the Bedrock colors of the given area, row by row
+     */
+    public int[] getColors(int x, int y, int columns, int rows) {
+        if (x == 0 && y == 0 && columns == SIZE && rows == SIZE) {
+            return colors;
+        }
+        int[] area = new int[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(colors, (y + row) * SIZE + x, area, row * columns, columns);
+        }
+        return area;
+    }
+
+    private record Key(long mapId, HashCode contentHash) {
+    }
+}
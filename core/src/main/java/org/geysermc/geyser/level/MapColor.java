@@ -276,6 +276,16 @@ public enum MapColor {
     COLOR_247(79, 88, 67);
 
     private static final MapColor[] VALUES = values();
+    /**
+     * The ARGB value of every possible color ID, so translating a map doesn't need to go through the enum.
+     */
+    private static final int[] ARGB_BY_ID = new int[256];
+
+    static {
+        for (int i = 0; i < ARGB_BY_ID.length; i++) {
+            ARGB_BY_ID[i] = fromId(i).getARGB();
+        }
+    }
 
     private final int value;
 
@@ -297,4 +307,11 @@ public enum MapColor {
     public int getARGB() {
         return value;
     }
+
+    /**
+     * @return the ARGB value of this Java map color ID
+     */
+    public static int toARGB(byte colorId) {
+        return ARGB_BY_ID[colorId & 0xFF];
+    }
 }
\ No newline at end of file
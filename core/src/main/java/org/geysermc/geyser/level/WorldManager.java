@@ -65,6 +65,33 @@ public abstract class WorldManager {
      */
     public abstract int getBlockAt(GeyserSession session, int x, int y, int z);
 
+    /**
+     * Gets the Java block states of every block in a cuboid. Blocks are written in the same order as
+     * {@link org.geysermc.geyser.level.block.BlockPositionIterator}: Z changes fastest, then X, then Y.
+     * <p>
+     * Implementations should override this if they can look up many blocks cheaper than calling
+     * {@link #getBlockAt(GeyserSession, int, int, int)} for each of them.
+     *
+     * @param session the session
+     * @param minX the lowest x coordinate of the cuboid
+     * @param minY the lowest y coordinate of the cuboid
+     * @param minZ the lowest z coordinate of the cuboid
+     * @param sizeX the amount of blocks on the x axis
+     * @param sizeY the amount of blocks on the y axis
+     * @param sizeZ the amount of blocks on the z axis
+     * @param blocks the array to write the block states into. Must hold at least sizeX * sizeY * sizeZ entries.
+     */
+    public void getBlocks(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        int i = 0;
+        for (int y = minY; y < minY + sizeY; y++) {
+            for (int x = minX; x < minX + sizeX; x++) {
+                for (int z = minZ; z < minZ + sizeZ; z++) {
+                    blocks[i++] = getBlockAt(session, x, y, z);
+                }
+            }
+        }
+    }
+
     /**
      * Checks whether or not this world manager requires a separate chunk cache/has access to more block data than the chunk cache.
      * <p>
@@ -33,6 +33,7 @@ public class BlockPositionIterator {
     private final int minZ;
 
     private final int sizeX;
+    private final int sizeY;
     private final int sizeZ;
 
     private int i = 0;
@@ -48,7 +49,7 @@ public class BlockPositionIterator {
         this.minZ = minZ;
 
         this.sizeX = maxX - minX + 1;
-        int sizeY = maxY - minY + 1;
+        this.sizeY = maxY - minY + 1;
         this.sizeZ = maxZ - minZ + 1;
         this.maxI = sizeX * sizeY * sizeZ;
     }
@@ -77,4 +78,28 @@ public class BlockPositionIterator {
     public int getZ() {
         return (i % sizeZ) + minZ;
     }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getSizeZ() {
+        return sizeZ;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.block;
+
+import org.geysermc.geyser.registry.BlockRegistries;
+
+/**
+ * Properties of Java block states that are checked for a lot of blocks at once, such as while translating chunks.
+ * Every block state has one byte of these flags in {@link BlockRegistries#BLOCK_STATE_FLAGS}, so checking them is
+ * one array read instead of a set or map lookup each.
+ */
+public final class BlockStateFlags {
+    public static final int WATERLOGGED = 1;
+    /**
+     * Flower pots, pistons and cauldrons that are not filled with water - blocks that are only block entities on Bedrock.
+     */
+    public static final int BEDROCK_ONLY_BLOCK_ENTITY = 1 << 1;
+    public static final int INTERACTIVE = 1 << 2;
+    public static final int INTERACTIVE_MAY_BUILD = 1 << 3;
+    public static final int PISTON = 1 << 4;
+    public static final int SKULL = 1 << 5;
+
+    public static boolean isWaterlogged(int state) {
+        return has(state, WATERLOGGED);
+    }
+
+    public static boolean isBedrockOnlyBlockEntity(int state) {
+        return has(state, BEDROCK_ONLY_BLOCK_ENTITY);
+    }
+
+    public static boolean isInteractive(int state) {
+        return has(state, INTERACTIVE);
+    }
+
+    public static boolean isInteractiveMayBuild(int state) {
+        return has(state, INTERACTIVE_MAY_BUILD);
+    }
+
+    public static boolean isPiston(int state) {
+        return has(state, PISTON);
+    }
+
+    public static boolean isSkull(int state) {
+        return has(state, SKULL);
+    }
+
+    private static boolean has(int state, int flag) {
+        byte[] flags = BlockRegistries.BLOCK_STATE_FLAGS.get();
+        // The server can send any block state, so don't trust it to be in bounds
+        return state >= 0 && state < flags.length && (flags[state] & flag) != 0;
+    }
+
+    private BlockStateFlags() {
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the arrays that cached chunk sections are packed into, and keeps track of how much memory they take up
+ * across all sessions. Arrays of removed chunks are kept around to be reused by the next chunks that are cached.
+ */
+public final class ChunkMemoryPool {
+    /**
+     * The largest array that is pooled holds 4096 entries of 16 bits.
+     */
+    private static final int MAX_POOLED_LENGTH = CompactSection.SIZE * 16 / 64;
+    private static final int ARRAYS_PER_LENGTH = 512;
+
+    /**
+     * One queue for each power of two length, up to {@link #MAX_POOLED_LENGTH}.
+     */
+    @SuppressWarnings("unchecked")
+    private final Queue<long[]>[] pools = new Queue[Integer.numberOfTrailingZeros(MAX_POOLED_LENGTH) + 1];
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final long budget;
+
+    /**
+     * @param budgetMegabytes how much memory cached chunks can take up before sessions start evicting chunks, or 0 for no limit
+     */
+    public ChunkMemoryPool(int budgetMegabytes) {
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = new ArrayBlockingQueue<>(ARRAYS_PER_LENGTH);
+        }
+        this.budget = budgetMegabytes * 1024L * 1024L;
+    }
+
+    /**
+     * The returned array is not cleared.
+     *
+     * @param length must be a power of two
+     */
+    public long[] allocate(int length) {
+        usedBytes.addAndGet(length * 8L);
+
+        long[] array = length <= MAX_POOLED_LENGTH ? pools[Integer.numberOfTrailingZeros(length)].poll() : null;
+        if (array != null) {
+            pooledBytes.addAndGet(length * -8L);
+            return array;
+        }
+        return new long[length];
+    }
+
+    /**
+     * Returns an array to the pool. The array must not be used anymore afterwards.
+     */
+    public void free(long[] array) {
+        usedBytes.addAndGet(array.length * -8L);
+
+        if (array.length <= MAX_POOLED_LENGTH && pools[Integer.numberOfTrailingZeros(array.length)].offer(array)) {
+            pooledBytes.addAndGet(array.length * 8L);
+        }
+    }
+
+    /**
+     * @return if chunk caches should evict chunks until this is false
+     */
+    public boolean isOverBudget() {
+        return budget > 0 && usedBytes.get() > budget;
+    }
+
+    /**
+     * @return how many bytes of block data are cached by all sessions
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * @return how many bytes are kept for reuse
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.FastThreadLocal;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.geysermc.geyser.level.chunk.bitarray.BitArray;
+import org.geysermc.geyser.level.chunk.bitarray.BitArrayVersion;
+
+import java.util.BitSet;
+
+/**
+ * Objects that are reused between chunk translations on the same thread. Each section is written out as soon as it
+ * is translated, so the palette and block data of one section can be reused for the next.
+ */
+public final class ChunkScratch {
+    private static final FastThreadLocal<ChunkScratch> SCRATCH = new FastThreadLocal<>() {
+        @Override
+        protected ChunkScratch initialValue() {
+            return new ChunkScratch();
+        }
+    };
+
+    private final IntArrayList palette = new IntArrayList(16);
+    private final BitArray[] blockData = new BitArray[BitArrayVersion.values().length];
+    private final int[] layer1Data = new int[BlockStorage.SIZE >> 5];
+    private final BitSet waterloggedPaletteIds = new BitSet();
+    private final BitSet bedrockOnlyBlockEntityIds = new BitSet();
+    private final ByteBuf serializeBuffer = Unpooled.buffer(BlockStorage.SIZE * 2);
+
+    private ChunkScratch() {
+    }
+
+    /**
+     * @return the scratch objects of the current thread
+     */
+    public static ChunkScratch get() {
+        return SCRATCH.get();
+    }
+
+    /**
+     * @return an empty palette with room for at least the given amount of entries
+     */
+    public IntArrayList palette(int size) {
+        palette.clear();
+        palette.ensureCapacity(size);
+        return palette;
+    }
+
+    /**
+     * The returned array is not cleared, so every index has to be set before it is used.
+     */
+    public BitArray blockData(BitArrayVersion version) {
+        BitArray array = blockData[version.ordinal()];
+        if (array == null) {
+            array = blockData[version.ordinal()] = version.createArray(BlockStorage.SIZE);
+        }
+        return array;
+    }
+
+    /**
+     * The returned words of a {@link BitArrayVersion#V1} array are not cleared, so every word has to be set before it is used.
+     */
+    public int[] layer1Data() {
+        return layer1Data;
+    }
+
+    public BitSet waterloggedPaletteIds() {
+        waterloggedPaletteIds.clear();
+        return waterloggedPaletteIds;
+    }
+
+    public BitSet bedrockOnlyBlockEntityIds() {
+        bedrockOnlyBlockEntityIds.clear();
+        return bedrockOnlyBlockEntityIds;
+    }
+
+    /**
+     * @return the section serialized into its own array, so it can be kept after this scratch is reused
+     */
+    public byte[] serialize(GeyserChunkSection section) {
+        serializeBuffer.clear();
+        section.writeToNetwork(serializeBuffer);
+        byte[] serialized = new byte[serializeBuffer.readableBytes()];
+        serializeBuffer.readBytes(serialized);
+        return serialized;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A cache shared between all sessions that maps the raw bytes of a Java chunk section to the serialized Bedrock
+ * sub-chunk. Sessions on the same Bedrock protocol version use the same block mappings, so if many players load the
+ * same area (spawn chunks on a hub, for example) each section only needs to be translated once.
+ * <p>
+ * Sections that produce Bedrock-only block entities (such as pistons or flower pots) must not be stored here, as
+ * those block entities depend on the position of the section and are not part of the serialized sub-chunk.
+ */
+public final class ChunkSectionCache {
+    private final Cache<SectionKey, byte[]> cache;
+
+    /**
+     * @param maximumSize the maximum size of the cache, in megabytes
+     */
+    public ChunkSectionCache(int maximumSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumSize * 1024L * 1024L)
+                .weigher((SectionKey key, byte[] value) -> key.data().length + value.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param protocolVersion the Bedrock protocol version of the session
+     * @param javaData the full Java chunk data array
+     * @param start the index where this section begins in the Java chunk data
+     * @param end the index where this section ends in the Java chunk data
+     * @return the lookup key of this section
+     */
+    public SectionKey key(int protocolVersion, byte[] javaData, int start, int end) {
+        return new SectionKey(protocolVersion, Arrays.copyOfRange(javaData, start, end));
+    }
+
+    /**
+     * @return the serialized Bedrock sub-chunk for this section, or null if it has not been cached yet.
+     */
+    @Nullable
+    public byte[] get(SectionKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Stores a serialized section in the cache.
+     *
+     * @return the serialized section
+     */
+    public byte[] put(SectionKey key, byte[] serialized) {
+        cache.put(key, serialized);
+        return serialized;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public static final class SectionKey {
+        private final int protocolVersion;
+        private final byte[] data;
+        private final int hashCode;
+
+        private SectionKey(int protocolVersion, byte[] data) {
+            this.protocolVersion = protocolVersion;
+            this.data = data;
+            this.hashCode = 31 * protocolVersion + Arrays.hashCode(data);
+        }
+
+        byte[] data() {
+            return data;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SectionKey other)) return false;
+            return protocolVersion == other.protocolVersion && hashCode == other.hashCode && Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.GlobalPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.Palette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.SingletonPalette;
+
+import java.util.Arrays;
+
+/**
+ * A Java chunk section stored as compactly as possible, for block lookups only. Entries take up 0, 1, 2, 4 or 8 bits
+ * and point into a palette, or 16 bits holding the block state directly once there are more than 256 different blocks.
+ * Entries are in the same YZX order as Java Edition.
+ * <p>
+ * The packed data is taken from a {@link ChunkMemoryPool} and has to be returned with {@link #free()}.
+ */
+public final class CompactSection {
+    public static final int SIZE = 4096;
+    private static final int DIRECT_BITS = 16;
+
+    private final ChunkMemoryPool pool;
+    /**
+     * Null if entries are block states instead of palette indexes.
+     */
+    private int[] palette;
+    private int paletteSize;
+    private int bits;
+    /**
+     * Null if the whole section is the first block of the palette.
+     */
+    private long[] data;
+
+    private int entriesPerLongShift;
+    private int entryMask;
+    private int valueMask;
+
+    private CompactSection(ChunkMemoryPool pool, int[] palette, int paletteSize, int bits, long[] data) {
+        this.pool = pool;
+        this.palette = palette;
+        this.paletteSize = paletteSize;
+        this.data = data;
+        setBits(bits);
+    }
+
+    /**
+     * @return a section consisting of only one block
+     */
+    public static CompactSection of(ChunkMemoryPool pool, int blockState) {
+        int[] palette = new int[4];
+        palette[0] = blockState;
+        return new CompactSection(pool, palette, 1, 0, null);
+    }
+
+    public static CompactSection from(ChunkMemoryPool pool, DataPalette javaSection) {
+        Palette javaPalette = javaSection.getPalette();
+        if (javaPalette instanceof SingletonPalette || javaPalette.size() == 1) {
+            return of(pool, javaPalette.idToState(0));
+        }
+
+        BitStorage storage = javaSection.getStorage();
+        if (javaPalette instanceof GlobalPalette) {
+            return new CompactSection(pool, null, 0, DIRECT_BITS, pack(pool, storage, DIRECT_BITS));
+        }
+
+        int paletteSize = javaPalette.size();
+        int[] palette = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            palette[i] = javaPalette.idToState(i);
+        }
+
+        int bits = 1;
+        while ((1 << bits) < paletteSize) {
+            bits <<= 1;
+        }
+        return new CompactSection(pool, palette, paletteSize, bits, pack(pool, storage, bits));
+    }
+
+    private static long[] pack(ChunkMemoryPool pool, BitStorage storage, int bits) {
+        long[] data = pool.allocate(SIZE * bits / 64);
+        int entriesPerLong = 64 / bits;
+        int index = 0;
+        for (int i = 0; i < data.length; i++) {
+            long word = 0;
+            for (int j = 0; j < entriesPerLong; j++) {
+                word |= (long) storage.get(index++) << (j * bits);
+            }
+            data[i] = word;
+        }
+        return data;
+    }
+
+    /**
+     * @return a copy of this section that can be changed independently
+     */
+    public CompactSection copy() {
+        long[] dataCopy = null;
+        if (data != null) {
+            dataCopy = pool.allocate(data.length);
+            System.arraycopy(data, 0, dataCopy, 0, data.length);
+        }
+        return new CompactSection(pool, palette == null ? null : palette.clone(), paletteSize, bits, dataCopy);
+    }
+
+    public int get(int x, int y, int z) {
+        int value = getValue(index(x, y, z));
+        return palette == null ? value : palette[value];
+    }
+
+    public void set(int x, int y, int z, int blockState) {
+        int value;
+        if (palette == null) {
+            value = blockState;
+        } else {
+            value = indexOf(blockState);
+            if (value == -1) {
+                value = paletteSize;
+                if (paletteSize == palette.length) {
+                    palette = Arrays.copyOf(palette, paletteSize * 2);
+                }
+                palette[paletteSize++] = blockState;
+
+                if (paletteSize > (1 << bits)) {
+                    resize(bits == 0 ? 1 : bits << 1);
+                    if (palette == null) {
+                        value = blockState;
+                    }
+                }
+            }
+        }
+
+        if (data == null) {
+            // Still a single block section, and this block is that one
+            return;
+        }
+
+        int index = index(x, y, z);
+        int shift = (index & entryMask) * bits;
+        int longIndex = index >>> entriesPerLongShift;
+        data[longIndex] = data[longIndex] & ~((long) valueMask << shift) | ((long) value << shift);
+    }
+
+    /**
+     * Returns the packed data to the pool. This section must not be used anymore afterwards.
+     */
+    public void free() {
+        if (data != null) {
+            pool.free(data);
+            data = null;
+        }
+    }
+
+    private int getValue(int index) {
+        if (data == null) {
+            return 0;
+        }
+        return (int) (data[index >>> entriesPerLongShift] >>> ((index & entryMask) * bits)) & valueMask;
+    }
+
+    private int indexOf(int blockState) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == blockState) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void resize(int newBits) {
+        boolean direct = newBits > 8;
+        if (direct) {
+            newBits = DIRECT_BITS;
+        }
+
+        long[] newData = pool.allocate(SIZE * newBits / 64);
+        int entriesPerLong = 64 / newBits;
+        int index = 0;
+        for (int i = 0; i < newData.length; i++) {
+            long word = 0;
+            for (int j = 0; j < entriesPerLong; j++) {
+                int value = getValue(index++);
+                if (direct) {
+                    value = palette[value];
+                }
+                word |= (long) value << (j * newBits);
+            }
+            newData[i] = word;
+        }
+
+        free();
+        data = newData;
+        if (direct) {
+            palette = null;
+            paletteSize = 0;
+        }
+        setBits(newBits);
+    }
+
+    private void setBits(int bits) {
+        this.bits = bits;
+        if (bits == 0) {
+            this.entriesPerLongShift = 0;
+            this.entryMask = 0;
+            this.valueMask = 0;
+        } else {
+            this.entriesPerLongShift = Integer.numberOfTrailingZeros(64 / bits);
+            this.entryMask = (64 / bits) - 1;
+            this.valueMask = (1 << bits) - 1;
+        }
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+}
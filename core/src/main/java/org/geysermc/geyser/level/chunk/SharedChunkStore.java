@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.google.common.hash.Hashing;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.level.block.BlockStateValues;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lets the chunk caches of sessions on the same server and world share chunks with identical contents, so cached
+ * chunks take up memory for each area of the world rather than for each player.
+ * <p>
+ * A chunk used by several sessions is never changed. When one of them receives a block update for it, that session
+ * makes its own private copy once. A chunk used by only one session is changed in place, and is no longer handed out to
+ * other sessions since it does not match its hash anymore.
+ */
+public final class SharedChunkStore {
+    private final ChunkMemoryPool pool;
+    /**
+     * The chunk most recently sent by the server for each position.
+     */
+    private final Map<Key, SharedChunk> chunks = new HashMap<>();
+
+    public SharedChunkStore(ChunkMemoryPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param chunkData the raw Java chunk data
+     * @return a hash identifying the contents of the chunk
+     */
+    public static long hash(byte[] chunkData) {
+        return Hashing.murmur3_128().hashBytes(chunkData).asLong();
+    }
+
+    /**
+     * Returns a shared chunk with these contents, creating it if no other session has it loaded.
+     * The chunk has to be returned with {@link #release(SharedChunk)} once it is no longer used.
+     *
+     * @param world identifies the server and world the chunk is in
+     * @param contentHash the {@link #hash(byte[])} of the chunk data
+     */
+    public SharedChunk acquire(String world, long chunkPosition, long contentHash, DataPalette[] javaSections) {
+        Key key = new Key(world, chunkPosition);
+        synchronized (this) {
+            SharedChunk chunk = chunks.get(key);
+            if (chunk != null && chunk.contentHash == contentHash) {
+                chunk.references++;
+                return chunk;
+            }
+        }
+
+        // Converting the sections does not need the lock
+        CompactSection[] sections = new CompactSection[javaSections.length];
+        for (int i = 0; i < javaSections.length; i++) {
+            if (javaSections[i] != null) {
+                sections[i] = CompactSection.from(pool, javaSections[i]);
+            }
+        }
+
+        synchronized (this) {
+            SharedChunk chunk = chunks.get(key);
+            if (chunk != null && chunk.contentHash == contentHash) {
+                // Another session added the same chunk in the meantime
+                for (CompactSection section : sections) {
+                    if (section != null) {
+                        section.free();
+                    }
+                }
+                chunk.references++;
+                return chunk;
+            }
+
+            chunk = new SharedChunk(key, contentHash, sections);
+            chunks.put(key, chunk);
+            return chunk;
+        }
+    }
+
+    /**
+     * Applies a block change to a chunk, if the session calling this is the only one using it.
+     *
+     * @param sectionIndex the index of the section in the chunk
+     * @param x the x position in the section
+     * @param y the y position in the section
+     * @param z the z position in the section
+     * @return false if other sessions use this chunk as well, in which case the session should make its own copy of
+     * the chunk and release this one
+     */
+    public synchronized boolean update(SharedChunk chunk, int sectionIndex, int x, int y, int z, int blockState) {
+        if (chunk.references > 1) {
+            return false;
+        }
+
+        // Sessions loading this chunk later should not get the changed blocks
+        chunks.remove(chunk.key, chunk);
+
+        CompactSection section = chunk.sections[sectionIndex];
+        if (section == null) {
+            section = CompactSection.of(pool, BlockStateValues.JAVA_AIR_ID);
+            chunk.sections[sectionIndex] = section;
+        }
+        section.set(x, y, z, blockState);
+        return true;
+    }
+
+    public synchronized void release(SharedChunk chunk) {
+        if (--chunk.references > 0) {
+            return;
+        }
+
+        // Sections are never used by more than one shared chunk
+        for (CompactSection section : chunk.sections) {
+            if (section != null) {
+                section.free();
+            }
+        }
+        chunks.remove(chunk.key, chunk);
+    }
+
+    /**
+     * @return how many positions have a chunk that can be shared
+     */
+    public synchronized int size() {
+        return chunks.size();
+    }
+
+    private record Key(String world, long chunkPosition) {
+    }
+
+    /**
+     * A chunk that may be used by multiple sessions. Its sections must only be changed through
+     * {@link #update(SharedChunk, int, int, int, int, int)}.
+     */
+    public static final class SharedChunk {
+        private final Key key;
+        private final long contentHash;
+        private final CompactSection[] sections;
+        private int references = 1;
+
+        private SharedChunk(Key key, long contentHash, CompactSection[] sections) {
+            this.key = key;
+            this.contentHash = contentHash;
+            this.sections = sections;
+        }
+
+        public CompactSection[] sections() {
+            return sections;
+        }
+    }
+}
@@ -27,6 +27,9 @@ package org.geysermc.geyser.level.chunk.bitarray;
 
 import com.nukkitx.network.VarInts;
 import io.netty.buffer.ByteBuf;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.BitSet;
 
 public interface BitArray {
 
@@ -48,4 +51,80 @@ public interface BitArray {
     BitArrayVersion getVersion();
 
     BitArray copy();
+
+    /**
+     * Sets all 4096 entries of this array from the data of a Java chunk section. Java stores blocks in YZX order and
+     * Bedrock in XZY order, so the entries are transposed while copying. Every value must fit into this array.
+     *
+     * @param javaData the packed longs of a Java {@code BitStorage}
+     * @param javaBitsPerEntry the bits per entry of the Java data
+     */
+    default void setAllFromYZX(long[] javaData, int javaBitsPerEntry) {
+        setAllFromYZX(javaData, javaBitsPerEntry, null, null);
+    }
+
+    /**
+     * Same as {@link #setAllFromYZX(long[], int)}, but also builds the waterlogged layer in the same pass.
+     *
+     * @param waterloggedIds the palette IDs of waterlogged blocks
+     * @param layer1Words the words of a {@link BitArrayVersion#V1} array. Each entry is set to 1 if the block at that
+     *                    position is waterlogged, and 0 otherwise.
+     */
+    default void setAllFromYZX(long[] javaData, int javaBitsPerEntry, @Nullable BitSet waterloggedIds, @Nullable int[] layer1Words) {
+        int[] words = getWords();
+        int bits = getVersion().bits;
+        int entriesPerWord = getVersion().entriesPerWord;
+
+        int javaValuesPerLong = 64 / javaBitsPerEntry;
+        long javaMask = (1L << javaBitsPerEntry) - 1;
+        // Going up one block skips 256 entries in YZX order
+        int longStep = 256 / javaValuesPerLong;
+        int indexStep = 256 % javaValuesPerLong;
+
+        int word = 0;
+        int wordIndex = 0;
+        int indexInWord = 0;
+        int layer1Word = 0;
+        int xzy = 0;
+        // Walk through the Bedrock entries in order, so every word is only written once
+        for (int xz = 0; xz < 256; xz++) {
+            int yzx = ((xz & 0xF) << 4) | (xz >> 4);
+            int longIndex = yzx / javaValuesPerLong;
+            int indexInLong = yzx % javaValuesPerLong;
+
+            for (int y = 0; y < 16; y++) {
+                int value = (int) ((javaData[longIndex] >>> (indexInLong * javaBitsPerEntry)) & javaMask);
+
+                word |= value << (indexInWord * bits);
+                if (++indexInWord == entriesPerWord) {
+                    words[wordIndex++] = word;
+                    word = 0;
+                    indexInWord = 0;
+                }
+
+                if (layer1Words != null) {
+                    if (waterloggedIds.get(value)) {
+                        layer1Word |= 1 << (xzy & 0x1F);
+                    }
+                    if ((xzy & 0x1F) == 0x1F) {
+                        layer1Words[xzy >> 5] = layer1Word;
+                        layer1Word = 0;
+                    }
+                }
+                xzy++;
+
+                longIndex += longStep;
+                indexInLong += indexStep;
+                if (indexInLong >= javaValuesPerLong) {
+                    indexInLong -= javaValuesPerLong;
+                    longIndex++;
+                }
+            }
+        }
+
+        if (indexInWord != 0) {
+            // The last word of padded arrays is not full
+            words[wordIndex] = word;
+        }
+    }
 }
\ No newline at end of file
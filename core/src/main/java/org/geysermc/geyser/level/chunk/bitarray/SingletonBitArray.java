@@ -27,6 +27,10 @@ package org.geysermc.geyser.level.chunk.bitarray;
 
 import io.netty.buffer.ByteBuf;
 import it.unimi.dsi.fastutil.ints.IntArrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
 
 public class SingletonBitArray implements BitArray {
     public static final SingletonBitArray INSTANCE = new SingletonBitArray();
@@ -67,4 +71,12 @@ public class SingletonBitArray implements BitArray {
     public SingletonBitArray copy() {
         return new SingletonBitArray();
     }
+
+    @Override
+    public void setAllFromYZX(long[] javaData, int javaBitsPerEntry, @Nullable BitSet waterloggedIds, @Nullable int[] layer1Words) {
+        // Every entry is 0
+        if (layer1Words != null) {
+            Arrays.fill(layer1Words, waterloggedIds.get(0) ? -1 : 0);
+        }
+    }
 }
@@ -55,6 +55,11 @@ public class CollisionManager {
     @Getter
     private final BoundingBox playerBoundingBox;
 
+    /**
+     * The blocks around the player for this tick
+     */
+    private final CollisionNeighbourhood neighbourhood;
+
     /**
      * Whether the player is inside scaffolding
      */
@@ -89,6 +94,14 @@ public class CollisionManager {
     public CollisionManager(GeyserSession session) {
         this.session = session;
         this.playerBoundingBox = new BoundingBox(0, 0, 0, 0.6, 1.8, 0.6);
+        this.neighbourhood = new CollisionNeighbourhood(session);
+    }
+
+    /**
+     * Forgets the blocks cached for collision checks. Called every tick and whenever blocks change.
+     */
+    public void invalidateNeighbourhood() {
+        neighbourhood.invalidate();
     }
 
     /**
@@ -235,8 +248,9 @@ public class CollisionManager {
 
         // Used when correction code needs to be run before the main correction
         BlockPositionIterator iter = session.getCollisionManager().playerCollidableBlocksIterator();
+        boolean cached = neighbourhood.cover(iter);
         for (; iter.hasNext(); iter.next()) {
-            BlockCollision blockCollision = BlockUtils.getCollisionAt(session, iter.getX(), iter.getY(), iter.getZ());
+            BlockCollision blockCollision = getCollisionAt(iter.getX(), iter.getY(), iter.getZ(), cached);
             if (blockCollision != null) {
                 blockCollision.beforeCorrectPosition(iter.getX(), iter.getY(), iter.getZ(), playerBoundingBox);
             }
@@ -244,7 +258,7 @@ public class CollisionManager {
 
         // Main correction code
         for (iter.reset(); iter.hasNext(); iter.next()) {
-            BlockCollision blockCollision = BlockUtils.getCollisionAt(session, iter.getX(), iter.getY(), iter.getZ());
+            BlockCollision blockCollision = getCollisionAt(iter.getX(), iter.getY(), iter.getZ(), cached);
             if (blockCollision != null) {
                 if (!blockCollision.correctPosition(session, iter.getX(), iter.getY(), iter.getZ(), playerBoundingBox)) {
                     return false;
@@ -341,12 +355,13 @@ public class CollisionManager {
     }
 
     private double computeCollisionOffset(BoundingBox boundingBox, Axis axis, double offset, BlockPositionIterator iter, boolean checkWorld) {
+        boolean cached = checkWorld && neighbourhood.cover(iter);
         for (iter.reset(); iter.hasNext(); iter.next()) {
             int x = iter.getX();
             int y = iter.getY();
             int z = iter.getZ();
             if (checkWorld) {
-                BlockCollision blockCollision = BlockUtils.getCollisionAt(session, x, y, z);
+                BlockCollision blockCollision = getCollisionAt(x, y, z, cached);
                 if (blockCollision != null && !(blockCollision instanceof ScaffoldingCollision)) {
                     offset = blockCollision.computeCollisionOffset(x, y, z, boundingBox, axis, offset);
                 }
@@ -359,6 +374,13 @@ public class CollisionManager {
         return offset;
     }
 
+    private BlockCollision getCollisionAt(int x, int y, int z, boolean cached) {
+        if (cached) {
+            return BlockUtils.getCollision(neighbourhood.getBlockAt(x, y, z));
+        }
+        return BlockUtils.getCollisionAt(session, x, y, z);
+    }
+
     /**
      * @return true if the block located at the player's floor position plus 1 would intersect with the player,
      * were they not sneaking
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.physics;
+
+import org.geysermc.geyser.level.block.BlockPositionIterator;
+import org.geysermc.geyser.session.GeyserSession;
+
+/**
+ * Holds the blocks around the player for the current tick, so the many overlapping lookups made while correcting
+ * one movement only ask the {@link org.geysermc.geyser.level.WorldManager} once.
+ * <p>
+ * Has to be invalidated every tick and whenever a block changes.
+ */
+final class CollisionNeighbourhood {
+    /**
+     * Extra blocks fetched in every direction, so the slightly moved boxes checked when stepping up still fit.
+     */
+    private static final int PADDING = 1;
+    /**
+     * Anything larger is most likely a teleport and is not worth caching.
+     */
+    private static final int MAX_VOLUME = 4096;
+
+    private final GeyserSession session;
+    private int[] blocks = new int[0];
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int sizeX;
+    private int sizeY;
+    private int sizeZ;
+    private boolean valid;
+
+    CollisionNeighbourhood(GeyserSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Makes sure every block of the iterator is cached.
+     *
+     * @return false if the area is too large to be cached, in which case blocks have to be looked up directly
+     */
+    boolean cover(BlockPositionIterator iter) {
+        if (valid && contains(iter)) {
+            return true;
+        }
+
+        int newSizeX = iter.getSizeX() + PADDING * 2;
+        int newSizeY = iter.getSizeY() + PADDING * 2;
+        int newSizeZ = iter.getSizeZ() + PADDING * 2;
+        int volume = newSizeX * newSizeY * newSizeZ;
+        if (volume > MAX_VOLUME) {
+            return false;
+        }
+
+        if (blocks.length < volume) {
+            blocks = new int[volume];
+        }
+        minX = iter.getMinX() - PADDING;
+        minY = iter.getMinY() - PADDING;
+        minZ = iter.getMinZ() - PADDING;
+        sizeX = newSizeX;
+        sizeY = newSizeY;
+        sizeZ = newSizeZ;
+        session.getGeyser().getWorldManager().getBlocks(session, minX, minY, minZ, sizeX, sizeY, sizeZ, blocks);
+        valid = true;
+        return true;
+    }
+
+    /**
+     * @return the block at this position. The position must be inside the area passed to {@link #cover(BlockPositionIterator)}.
+     */
+    int getBlockAt(int x, int y, int z) {
+        return blocks[((y - minY) * sizeX + (x - minX)) * sizeZ + (z - minZ)];
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    private boolean contains(BlockPositionIterator iter) {
+        return iter.getMinX() >= minX && iter.getMinX() + iter.getSizeX() <= minX + sizeX
+                && iter.getMinY() >= minY && iter.getMinY() + iter.getSizeY() <= minY + sizeY
+                && iter.getMinZ() >= minZ && iter.getMinZ() + iter.getSizeZ() <= minZ + sizeZ;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.geysermc.geyser.util.Histogram;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the expensive parts of a Bedrock login - verifying the certificate chain and setting up encryption - away from
+ * the network threads, and keeps some server key pairs ready so joining players don't have to wait for one.
+ */
+public final class LoginCryptoService {
+    /**
+     * How many milliseconds it took from receiving the login packet until encryption was set up.
+     */
+    public static final Histogram LOGIN_LATENCIES = Histogram.exponential(12);
+
+    /**
+     * How many logins can wait for a thread before new ones are turned away.
+     */
+    private static final int MAX_QUEUED_LOGINS = 256;
+    private static final int KEY_PAIR_POOL_SIZE = 8;
+
+    /**
+     * Null if logins should be handled on the thread that received them.
+     */
+    private final ThreadPoolExecutor executor;
+    private final Queue<KeyPair> keyPairs = new ConcurrentLinkedQueue<>();
+    /**
+     * Key pairs that are either ready or being generated.
+     */
+    private final AtomicInteger keyPairCount = new AtomicInteger();
+
+    public LoginCryptoService(int threads) {
+        if (threads > 0) {
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(MAX_QUEUED_LOGINS), new DefaultThreadFactory("Geyser login thread"));
+            fillKeyPairs();
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * @return the executor login work should be run on
+     * @throws RejectedExecutionException when used, if too many logins are already waiting
+     */
+    public Executor executor() {
+        return executor == null ? Runnable::run : executor;
+    }
+
+    /**
+     * @return a new secp384r1 key pair for the encryption handshake, generated in advance if possible
+     */
+    public KeyPair takeKeyPair() throws GeneralSecurityException {
+        KeyPair keyPair = keyPairs.poll();
+        if (keyPair == null) {
+            return generateKeyPair();
+        }
+        keyPairCount.decrementAndGet();
+        fillKeyPairs();
+        return keyPair;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void fillKeyPairs() {
+        if (executor == null) {
+            return;
+        }
+        while (true) {
+            int count = keyPairCount.get();
+            if (count >= KEY_PAIR_POOL_SIZE) {
+                return;
+            }
+            if (!keyPairCount.compareAndSet(count, count + 1)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        keyPairs.add(generateKeyPair());
+                    } catch (GeneralSecurityException e) {
+                        keyPairCount.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Busy with logins; try again after the next one
+                keyPairCount.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private static KeyPair generateKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp384r1"));
+        return generator.generateKeyPair();
+    }
+}
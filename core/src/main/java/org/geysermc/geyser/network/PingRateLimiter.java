@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+package org.geysermc.geyser.network;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Limits how many pings and queries are answered per source address, so ping floods can't keep the network threads
+ * busy. Every source gets a bucket of tokens that refills at the configured rate; addresses inside one of the
+ * configured subnets share a single bucket for the whole subnet.
+ */
+public final class PingRateLimiter {
+    /**
+     * Caps the memory used by buckets when many addresses (or spoofed addresses) send pings.
+     */
+    private static final int MAX_BUCKETS = 65536;
+
+    private final int pingsPerSecond;
+    private final List<CIDRMatcher> groups;
+    private final Cache<Object, TokenBucket> buckets = CacheBuilder.newBuilder()
+            .maximumSize(MAX_BUCKETS)
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .build();
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param pingsPerSecond how many pings and queries one source can send per second, or 0 for no limit
+     * @param groups subnets whose addresses share one limit
+     */
+    public PingRateLimiter(int pingsPerSecond, List<String> groups) {
+        this.pingsPerSecond = pingsPerSecond;
+        this.groups = groups.stream()
+                .map(CIDRMatcher::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return if a ping or query from this address should be answered
+     */
+    public boolean tryAcquire(InetAddress address) {
+        if (pingsPerSecond <= 0) {
+            served.increment();
+            return true;
+        }
+
+        Object key = address;
+        for (CIDRMatcher group : groups) {
+            if (group.matches(address)) {
+                key = group;
+                break;
+            }
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.asMap().computeIfAbsent(key, k -> new TokenBucket(pingsPerSecond, now));
+        if (bucket.tryAcquire(now)) {
+            served.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return how many pings and queries have been answered
+     */
+    public long getServed() {
+        return served.sum();
+    }
+
+    /**
+     * @return how many pings and queries have been ignored for going over the limit
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    static final class TokenBucket {
+        private final int capacity;
+        private double tokens;
+        private long lastRefill;
+
+        /**
+         * @param capacity how many tokens the bucket holds, which is also how many are added per second
+         * @param now the current {@link System#nanoTime()}
+         */
+        TokenBucket(int capacity, long now) {
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * capacity / 1_000_000_000.0);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
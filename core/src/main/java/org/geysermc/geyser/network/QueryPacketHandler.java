@@ -28,12 +28,7 @@ package org.geysermc.geyser.network;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import org.geysermc.geyser.GeyserImpl;
-import org.geysermc.geyser.ping.GeyserPingInfo;
-import org.geysermc.geyser.translator.text.MessageTranslator;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -41,36 +36,30 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class QueryPacketHandler {
     public static final byte HANDSHAKE = 0x09;
     public static final byte STATISTICS = 0x00;
 
+    /**
+     * How long a token is used before a new one is generated.
+     */
+    private static final long TOKEN_LIFETIME_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
     private final GeyserImpl geyser;
-    private final InetSocketAddress sender;
-    private final byte type;
-    private final int sessionId;
-    private byte[] token;
+    private volatile byte[] token;
+    private volatile long tokenCreated;
 
     /**
-     * The Query packet handler instance. The unsigned short magic handshake should already be read at this point,
-     * and the packet should be verified to have enough buffer space to be a qualified query packet.
+     * Handles all query packets. A single instance is shared by all senders.
      *
      * @param geyser Geyser
-     * @param sender The Sender IP/Port for the Query
-     * @param buffer The Query data
      */
-    public QueryPacketHandler(GeyserImpl geyser, InetSocketAddress sender, ByteBuf buffer) {
+    public QueryPacketHandler(GeyserImpl geyser) {
         this.geyser = geyser;
-        this.sender = sender;
-        this.type = buffer.readByte();
-        this.sessionId = buffer.readInt();
-
         regenerateToken();
-        handle();
     }
 
     /**
@@ -85,15 +74,22 @@ public class QueryPacketHandler {
     }
 
     /**
-     * Handles the query
+     * Handles the query. The unsigned short magic handshake should already be read at this point,
+     * and the packet should be verified to have enough buffer space to be a qualified query packet.
+     *
+     * @param sender The Sender IP/Port for the Query
+     * @param buffer The Query data
      */
-    private void handle() {
+    public void handle(InetSocketAddress sender, ByteBuf buffer) {
+        byte type = buffer.readByte();
+        int sessionId = buffer.readInt();
+
         switch (type) {
             case HANDSHAKE:
-                sendToken();
+                sendToken(sender, sessionId);
                 break;
             case STATISTICS:
-                sendQueryData();
+                sendQueryData(sender, sessionId);
                 break;
         }
     }
@@ -101,154 +97,33 @@ public class QueryPacketHandler {
     /**
      * Sends the token to the sender
      */
-    private void sendToken() {
+    private void sendToken(InetSocketAddress sender, int sessionId) {
+        if (System.currentTimeMillis() - tokenCreated >= TOKEN_LIFETIME_MILLIS) {
+            regenerateToken();
+        }
+
         ByteBuf reply = ByteBufAllocator.DEFAULT.ioBuffer(10);
         reply.writeByte(HANDSHAKE);
         reply.writeInt(sessionId);
-        reply.writeBytes(getTokenString(this.token, this.sender.getAddress()));
+        reply.writeBytes(getTokenString(this.token, sender.getAddress()));
         reply.writeByte(0);
 
-        sendPacket(reply);
+        sendPacket(sender, reply);
     }
 
     /**
      * Sends the query data to the sender
      */
-    private void sendQueryData() {
-        byte[] gameData = getGameData();
-        byte[] playerData = getPlayers();
+    private void sendQueryData(InetSocketAddress sender, int sessionId) {
+        // Game info and players, serialized ahead of time
+        byte[] queryData = geyser.getPingResponseCache().getQueryData();
 
-        ByteBuf reply = ByteBufAllocator.DEFAULT.ioBuffer(1 + 4 + gameData.length + playerData.length);
+        ByteBuf reply = ByteBufAllocator.DEFAULT.ioBuffer(1 + 4 + queryData.length);
         reply.writeByte(STATISTICS);
         reply.writeInt(sessionId);
+        reply.writeBytes(queryData);
 
-        // Game Info
-        reply.writeBytes(gameData);
-
-        // Players
-        reply.writeBytes(playerData);
-
-        sendPacket(reply);
-    }
-
-    /**
-     * Gets the game data for the query
-     *
-     * @return the game data for the query
-     */
-    private byte[] getGameData() {
-        ByteArrayOutputStream query = new ByteArrayOutputStream();
-
-        GeyserPingInfo pingInfo = null;
-        String motd;
-        String currentPlayerCount;
-        String maxPlayerCount;
-        String map;
-
-        if (geyser.getConfig().isPassthroughMotd() || geyser.getConfig().isPassthroughPlayerCounts()) {
-            pingInfo = geyser.getBootstrap().getGeyserPingPassthrough().getPingInformation();
-        }
-
-        if (geyser.getConfig().isPassthroughMotd() && pingInfo != null) {
-            String[] javaMotd = MessageTranslator.convertMessageLenient(pingInfo.getDescription()).split("\n");
-            motd = javaMotd[0].trim(); // First line of the motd.
-        } else {
-            motd = geyser.getConfig().getBedrock().primaryMotd();
-        }
-
-        // If passthrough player counts is enabled lets get players from the server
-        if (geyser.getConfig().isPassthroughPlayerCounts() && pingInfo != null) {
-            currentPlayerCount = String.valueOf(pingInfo.getPlayers().getOnline());
-            maxPlayerCount = String.valueOf(pingInfo.getPlayers().getMax());
-        } else {
-            currentPlayerCount = String.valueOf(geyser.getSessionManager().getSessions().size());
-            maxPlayerCount = String.valueOf(geyser.getConfig().getMaxPlayers());
-        }
-
-        // If passthrough protocol name is enabled let's get the protocol name from the ping response.
-        if (geyser.getConfig().isPassthroughProtocolName() && pingInfo != null) {
-            map = pingInfo.getVersion().getName();
-        } else {
-            map = GeyserImpl.NAME;
-        }
-
-        // Create a hashmap of all game data needed in the query
-        Map<String, String> gameData = new HashMap<>();
-        gameData.put("hostname", motd);
-        gameData.put("gametype", "SMP");
-        gameData.put("game_id", "MINECRAFT");
-        gameData.put("version", GeyserImpl.NAME + " (" + GeyserImpl.GIT_VERSION + ") " + GameProtocol.DEFAULT_BEDROCK_CODEC.getMinecraftVersion());
-        gameData.put("plugins", "");
-        gameData.put("map", map);
-        gameData.put("numplayers", currentPlayerCount);
-        gameData.put("maxplayers", maxPlayerCount);
-        gameData.put("hostport", String.valueOf(geyser.getConfig().getBedrock().port()));
-        gameData.put("hostip", geyser.getConfig().getBedrock().address());
-
-        try {
-            writeString(query, "GeyserMC");
-            query.write((byte) 0x80);
-            query.write((byte) 0x00);
-
-            // Fills the game data
-            for (Map.Entry<String, String> entry : gameData.entrySet()) {
-                writeString(query, entry.getKey());
-                writeString(query, entry.getValue());
-            }
-
-            // Final byte to show the end of the game data
-            query.write(new byte[] { 0x00, 0x01 });
-            return query.toByteArray();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new byte[0];
-        }
-    }
-
-    /**
-     * Generate a byte[] storing the player names
-     *
-     * @return The byte[] representation of players
-     */
-    private byte[] getPlayers() {
-        ByteArrayOutputStream query = new ByteArrayOutputStream();
-
-        GeyserPingInfo pingInfo = null;
-        if (geyser.getConfig().isPassthroughMotd() || geyser.getConfig().isPassthroughPlayerCounts()) {
-            pingInfo = geyser.getBootstrap().getGeyserPingPassthrough().getPingInformation();
-        }
-
-        try {
-            // Start the player section
-            writeString(query, "player_");
-            query.write((byte) 0x00);
-
-            // Fill player names
-            if (pingInfo != null) {
-                for (String username : pingInfo.getPlayerList()) {
-                    writeString(query, username);
-                }
-            }
-
-            // Final byte to show the end of the player data
-            query.write((byte) 0x00);
-            return query.toByteArray();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new byte[0];
-        }
-    }
-
-    /**
-     * Partially mimics {@link java.io.DataOutputStream#writeBytes(String)} which is what the Minecraft server uses as of 1.17.1.
-     */
-    private void writeString(OutputStream stream, String value) throws IOException {
-        int length = value.length();
-        for (int i = 0; i < length; i++) {
-            stream.write((byte) value.charAt(i));
-        }
-        // Padding to indicate the end of the string
-        stream.write((byte) 0x00);
+        sendPacket(sender, reply);
     }
 
     /**
@@ -256,7 +131,7 @@ public class QueryPacketHandler {
      *
      * @param data packet data
      */
-    private void sendPacket(ByteBuf data) {
+    private void sendPacket(InetSocketAddress sender, ByteBuf data) {
         geyser.getBedrockServer().getRakNet().send(sender, data);
     }
 
@@ -270,12 +145,12 @@ public class QueryPacketHandler {
         }
 
         this.token = token;
+        this.tokenCreated = System.currentTimeMillis();
     }
 
     /**
      * Gets an MD5 token for the current IP/Port.
-     * This should reset every 30 seconds but a new one is generated per instance
-     * Seems wasteful to code something in to clear it when it has no use.
+     * The token is regenerated every 30 seconds.
      *
      * @param token the token
      * @param address the address
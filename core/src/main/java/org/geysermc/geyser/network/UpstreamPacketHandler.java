@@ -42,12 +42,11 @@ import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.PendingMicrosoftAuthentication;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.util.LoginEncryptionUtils;
-import org.geysermc.geyser.util.MathUtils;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class UpstreamPacketHandler extends LoggingPacketHandler {
 
@@ -124,12 +123,39 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         session.setBlockMappings(BlockRegistries.BLOCKS.forVersion(loginPacket.getProtocolVersion()));
         session.setItemMappings(Registries.ITEMS.forVersion(loginPacket.getProtocolVersion()));
 
-        LoginEncryptionUtils.encryptPlayerConnection(session, loginPacket);
+        // Verifying the login is slow; don't hold up the network thread and continue on the session thread afterwards
+        long loginStart = System.nanoTime();
+        try {
+            geyser.getLoginCryptoService().executor().execute(() -> {
+                LoginEncryptionUtils.LoginData loginData;
+                try {
+                    loginData = LoginEncryptionUtils.verifyLogin(geyser, loginPacket);
+                } catch (Exception e) {
+                    session.disconnect("disconnectionScreen.internalError.cantConnect");
+                    geyser.getLogger().error("Unable to complete login", e);
+                    return;
+                }
+                session.executeInEventLoop(() -> completeLogin(loginData, loginStart));
+            });
+        } catch (RejectedExecutionException e) {
+            session.disconnect("disconnectionScreen.serverFull");
+        }
+        return true;
+    }
+
+    private void completeLogin(LoginEncryptionUtils.LoginData loginData, long loginStart) {
+        if (session.isClosed()) {
+            // The client left while we were verifying
+            return;
+        }
+
+        LoginEncryptionUtils.applyLogin(session, loginData);
 
         if (session.isClosed()) {
             // Can happen if Xbox validation fails
-            return true;
+            return;
         }
+        LoginCryptoService.LOGIN_LATENCIES.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loginStart));
 
         PlayStatusPacket playStatus = new PlayStatusPacket();
         playStatus.setStatus(PlayStatusPacket.Status.LOGIN_SUCCESS);
@@ -141,14 +167,13 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         for(ResourcePack resourcePack : ResourcePack.PACKS.values()) {
             ResourcePackManifest.Header header = resourcePack.getManifest().getHeader();
             resourcePacksInfo.getResourcePackInfos().add(new ResourcePacksInfoPacket.Entry(
-                    header.getUuid().toString(), header.getVersionString(), resourcePack.getFile().length(),
+                    header.getUuid().toString(), header.getVersionString(), resourcePack.getSize(),
                             resourcePack.getContentKey(), "", header.getUuid().toString(), false, false));
         }
         resourcePacksInfo.setForcedToAccept(GeyserImpl.getInstance().getConfig().isForceResourcePacks());
         session.sendUpstreamPacket(resourcePacksInfo);
 
         GeyserLocale.loadGeyserLocale(session.locale());
-        return true;
     }
 
     @Override
@@ -250,31 +275,25 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
 
     @Override
     public boolean handle(ResourcePackChunkRequestPacket packet) {
-        ResourcePackChunkDataPacket data = new ResourcePackChunkDataPacket();
         ResourcePack pack = ResourcePack.PACKS.get(packet.getPackId().toString());
+        if (pack == null || packet.getChunkIndex() < 0 || packet.getChunkIndex() >= pack.getChunkCount()) {
+            return true;
+        }
+
+        ResourcePackChunkDataPacket data = new ResourcePackChunkDataPacket();
 
         data.setChunkIndex(packet.getChunkIndex());
         data.setProgress(packet.getChunkIndex() * ResourcePack.CHUNK_SIZE);
         data.setPackVersion(packet.getPackVersion());
         data.setPackId(packet.getPackId());
 
-        int offset = packet.getChunkIndex() * ResourcePack.CHUNK_SIZE;
-        long remainingSize = pack.getFile().length() - offset;
-        byte[] packData = new byte[(int) MathUtils.constrain(remainingSize, 0, ResourcePack.CHUNK_SIZE)];
-
-        try (InputStream inputStream = new FileInputStream(pack.getFile())) {
-            inputStream.skip(offset);
-            inputStream.read(packData, 0, packData.length);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        data.setData(packData);
+        // The pack is already in memory, and the chunk is shared with every other session
+        data.setData(pack.getChunk(packet.getChunkIndex()));
 
         session.sendUpstreamPacket(data);
 
         // Check if it is the last chunk and send next pack in queue when available.
-        if (remainingSize <= ResourcePack.CHUNK_SIZE && !packsToSent.isEmpty()) {
+        if (packet.getChunkIndex() == pack.getChunkCount() - 1 && !packsToSent.isEmpty()) {
             sendPackDataInfo(packsToSent.pop());
         }
 
@@ -288,9 +307,8 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         ResourcePackManifest.Header header = pack.getManifest().getHeader();
 
         data.setPackId(header.getUuid());
-        int chunkCount = (int) Math.ceil((int) pack.getFile().length() / (double) ResourcePack.CHUNK_SIZE);
-        data.setChunkCount(chunkCount);
-        data.setCompressedPackSize(pack.getFile().length());
+        data.setChunkCount(pack.getChunkCount());
+        data.setCompressedPackSize(pack.getSize());
         data.setMaxChunkSize(ResourcePack.CHUNK_SIZE);
         data.setHash(pack.getSha256());
         data.setPackVersion(packID[1]);
@@ -33,12 +33,16 @@ import org.geysermc.geyser.util.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
@@ -60,6 +64,14 @@ public class ResourcePack {
 
     private byte[] sha256;
     private File file;
+    /**
+     * The pack file, mapped into memory once when loading so sending it to players doesn't touch the disk.
+     */
+    private MappedByteBuffer data;
+    /**
+     * Chunks that have been sent before. Every chunk is only copied out of {@link #data} once and then shared by all sessions.
+     */
+    private AtomicReferenceArray<byte[]> chunks;
     private ResourcePackManifest manifest;
     private ResourcePackManifest.Version version;
 
@@ -104,6 +116,12 @@ public class ResourcePack {
 
                 Stream<? extends ZipEntry> stream = null;
                 try {
+                    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                        pack.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                    pack.data.load();
+                    pack.chunks = new AtomicReferenceArray<>(pack.getChunkCount());
+
                     ZipFile zip = new ZipFile(file);
 
                     stream = zip.stream();
@@ -150,6 +168,33 @@ public class ResourcePack {
         return file;
     }
 
+    /**
+     * @return the size of the pack file in bytes
+     */
+    public int getSize() {
+        return data.capacity();
+    }
+
+    public int getChunkCount() {
+        return (getSize() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * @return the data of this chunk of the pack file. The array is shared and must not be changed.
+     */
+    public byte[] getChunk(int index) {
+        byte[] chunk = chunks.get(index);
+        if (chunk == null) {
+            int offset = index * CHUNK_SIZE;
+            chunk = new byte[Math.min(CHUNK_SIZE, getSize() - offset)];
+            data.get(offset, chunk);
+            if (!chunks.compareAndSet(index, null, chunk)) {
+                chunk = chunks.get(index);
+            }
+        }
+        return chunk;
+    }
+
     public ResourcePackManifest getManifest() {
         return manifest;
     }
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+package org.geysermc.geyser.ping;
+
+import com.nukkitx.protocol.bedrock.BedrockPong;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.translator.text.MessageTranslator;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the responses to Bedrock pings and queries ready, so answering them never waits for the ping passthrough or
+ * translates the MOTD again. Once the responses are older than the configured time they are refreshed in the
+ * background, and the old responses are sent in the meantime. Responses are only created again if the MOTD, player
+ * counts or player list changed.
+ */
+public final class PingResponseCache {
+    /*
+    The following constants are all used to ensure the ping does not reach a length where it is unparsable by the Bedrock client
+     */
+    private static final int MINECRAFT_VERSION_BYTES_LENGTH = GameProtocol.DEFAULT_BEDROCK_CODEC.getMinecraftVersion().getBytes(StandardCharsets.UTF_8).length;
+    private static final int BRAND_BYTES_LENGTH = GeyserImpl.NAME.getBytes(StandardCharsets.UTF_8).length;
+    /**
+     * The MOTD, sub-MOTD and Minecraft version ({@link #MINECRAFT_VERSION_BYTES_LENGTH}) combined cannot reach this length.
+     */
+    private static final int MAGIC_RAKNET_LENGTH = 338;
+
+    private final GeyserImpl geyser;
+    private final long ttlMillis;
+    /**
+     * Only one refresh runs at a time, no matter how many pings arrive while it does.
+     */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    /**
+     * Runs the refreshes, since the ping passthrough blocks until the server answered. Null if caching is disabled.
+     */
+    private final ExecutorService refreshExecutor;
+
+    private volatile Responses responses;
+
+    public PingResponseCache(GeyserImpl geyser, long ttlMillis) {
+        this.geyser = geyser;
+        this.ttlMillis = ttlMillis;
+        // Daemon, so a server that never answers does not keep the JVM running
+        this.refreshExecutor = ttlMillis > 0 ? Executors.newSingleThreadExecutor(new DefaultThreadFactory("Geyser ping refresh thread", true)) : null;
+        // Without the passthrough, so the first pings don't have to wait for the server
+        this.responses = createResponses(null);
+    }
+
+    /**
+     * @return the pong to send to a Bedrock ping. Must not be changed.
+     */
+    public BedrockPong getPong() {
+        return getResponses().pong();
+    }
+
+    /**
+     * @return the game data and player sections of a full query response. Must not be changed.
+     */
+    public byte[] getQueryData() {
+        return getResponses().queryData();
+    }
+
+    private Responses getResponses() {
+        if (ttlMillis <= 0) {
+            // Caching is disabled
+            return this.responses = updateResponses(this.responses, getPingInformation());
+        }
+
+        Responses responses = this.responses;
+        if (System.currentTimeMillis() - responses.createdAt() >= ttlMillis && refreshing.compareAndSet(false, true)) {
+            try {
+                refreshExecutor.execute(this::refresh);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                refreshing.set(false);
+            }
+        }
+        return responses;
+    }
+
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    private void refresh() {
+        try {
+            this.responses = updateResponses(this.responses, getPingInformation());
+        } catch (Throwable e) {
+            geyser.getLogger().error("Error while refreshing the ping response", e);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    @Nullable
+    private GeyserPingInfo getPingInformation() {
+        GeyserConfiguration config = geyser.getConfig();
+        if (config.isPassthroughMotd() || config.isPassthroughPlayerCounts()) {
+            IGeyserPingPassthrough pingPassthrough = geyser.getBootstrap().getGeyserPingPassthrough();
+            if (pingPassthrough != null) {
+                return pingPassthrough.getPingInformation();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the old responses if nothing they show has changed, otherwise new responses
+     */
+    private Responses updateResponses(Responses responses, @Nullable GeyserPingInfo pingInfo) {
+        if (responses.inputs().equals(ResponseInputs.of(geyser, pingInfo))) {
+            return new Responses(System.currentTimeMillis(), responses.inputs(), responses.pong(), responses.queryData());
+        }
+        return createResponses(pingInfo);
+    }
+
+    private Responses createResponses(@Nullable GeyserPingInfo pingInfo) {
+        byte[] gameData = createQueryGameData(pingInfo);
+        byte[] playerData = createQueryPlayerData(pingInfo);
+        byte[] queryData = new byte[gameData.length + playerData.length];
+        System.arraycopy(gameData, 0, queryData, 0, gameData.length);
+        System.arraycopy(playerData, 0, queryData, gameData.length, playerData.length);
+
+        return new Responses(System.currentTimeMillis(), ResponseInputs.of(geyser, pingInfo), createPong(pingInfo), queryData);
+    }
+
+    private BedrockPong createPong(@Nullable GeyserPingInfo pingInfo) {
+        GeyserConfiguration config = geyser.getConfig();
+
+        BedrockPong pong = new BedrockPong();
+        pong.setEdition("MCPE");
+        pong.setGameType("Survival"); // Can only be Survival or Creative as of 1.16.210.59
+        pong.setNintendoLimited(false);
+        pong.setProtocolVersion(GameProtocol.DEFAULT_BEDROCK_CODEC.getProtocolVersion());
+        pong.setVersion(GameProtocol.DEFAULT_BEDROCK_CODEC.getMinecraftVersion()); // Required to not be empty as of 1.16.210.59. Can only contain . and numbers.
+        pong.setIpv4Port(config.getBedrock().port());
+
+        if (config.isPassthroughMotd() && pingInfo != null && pingInfo.getDescription() != null) {
+            String[] motd = MessageTranslator.convertMessageLenient(pingInfo.getDescription()).split("\n");
+            String mainMotd = motd[0]; // First line of the motd.
+            String subMotd = (motd.length != 1) ? motd[1] : GeyserImpl.NAME; // Second line of the motd if present, otherwise default.
+
+            pong.setMotd(mainMotd.trim());
+            pong.setSubMotd(subMotd.trim()); // Trimmed to shift it to the left, prevents the universe from collapsing on us just because we went 2 characters over the text box's limit.
+        } else {
+            pong.setMotd(config.getBedrock().primaryMotd());
+            pong.setSubMotd(config.getBedrock().secondaryMotd());
+        }
+
+        // https://github.com/GeyserMC/Geyser/issues/3388
+        pong.setMotd(pong.getMotd().replace(';', ':'));
+        pong.setSubMotd(pong.getSubMotd().replace(';', ':'));
+
+        // Fallbacks to prevent errors and allow Bedrock to see the server
+        if (pong.getMotd() == null || pong.getMotd().isBlank()) {
+            pong.setMotd(GeyserImpl.NAME);
+        }
+        if (pong.getSubMotd() == null || pong.getSubMotd().isBlank()) {
+            // Sub-MOTD cannot be empty as of 1.16.210.59
+            pong.setSubMotd(GeyserImpl.NAME);
+        }
+
+        // The ping will not appear if the MOTD + sub-MOTD is of a certain length.
+        // We don't know why, though
+        byte[] motdArray = pong.getMotd().getBytes(StandardCharsets.UTF_8);
+        int subMotdLength = pong.getSubMotd().getBytes(StandardCharsets.UTF_8).length;
+        if (motdArray.length + subMotdLength > (MAGIC_RAKNET_LENGTH - MINECRAFT_VERSION_BYTES_LENGTH)) {
+            // Shorten the sub-MOTD first since that only appears locally
+            if (subMotdLength > BRAND_BYTES_LENGTH) {
+                pong.setSubMotd(GeyserImpl.NAME);
+                subMotdLength = BRAND_BYTES_LENGTH;
+            }
+            if (motdArray.length > (MAGIC_RAKNET_LENGTH - MINECRAFT_VERSION_BYTES_LENGTH - subMotdLength)) {
+                // If the top MOTD is still too long, we chop it down
+                byte[] newMotdArray = new byte[MAGIC_RAKNET_LENGTH - MINECRAFT_VERSION_BYTES_LENGTH - subMotdLength];
+                System.arraycopy(motdArray, 0, newMotdArray, 0, newMotdArray.length);
+                pong.setMotd(new String(newMotdArray, StandardCharsets.UTF_8));
+            }
+        }
+
+        if (config.isPassthroughPlayerCounts() && pingInfo != null) {
+            pong.setPlayerCount(pingInfo.getPlayers().getOnline());
+            pong.setMaximumPlayerCount(pingInfo.getPlayers().getMax());
+        } else {
+            pong.setPlayerCount(geyser.getSessionManager().getSessions().size());
+            pong.setMaximumPlayerCount(config.getMaxPlayers());
+        }
+
+        //Bedrock will not even attempt a connection if the client thinks the server is full
+        //so we have to fake it not being full
+        if (pong.getPlayerCount() >= pong.getMaximumPlayerCount()) {
+            pong.setMaximumPlayerCount(pong.getPlayerCount() + 1);
+        }
+
+        return pong;
+    }
+
+    /**
+     * Gets the game data for the query
+     *
+     * @return the game data for the query
+     */
+    private byte[] createQueryGameData(@Nullable GeyserPingInfo pingInfo) {
+        ByteArrayOutputStream query = new ByteArrayOutputStream();
+
+        String motd;
+        String currentPlayerCount;
+        String maxPlayerCount;
+        String map;
+
+        if (geyser.getConfig().isPassthroughMotd() && pingInfo != null) {
+            String[] javaMotd = MessageTranslator.convertMessageLenient(pingInfo.getDescription()).split("\n");
+            motd = javaMotd[0].trim(); // First line of the motd.
+        } else {
+            motd = geyser.getConfig().getBedrock().primaryMotd();
+        }
+
+        // If passthrough player counts is enabled lets get players from the server
+        if (geyser.getConfig().isPassthroughPlayerCounts() && pingInfo != null) {
+            currentPlayerCount = String.valueOf(pingInfo.getPlayers().getOnline());
+            maxPlayerCount = String.valueOf(pingInfo.getPlayers().getMax());
+        } else {
+            currentPlayerCount = String.valueOf(geyser.getSessionManager().getSessions().size());
+            maxPlayerCount = String.valueOf(geyser.getConfig().getMaxPlayers());
+        }
+
+        // If passthrough protocol name is enabled let's get the protocol name from the ping response.
+        if (geyser.getConfig().isPassthroughProtocolName() && pingInfo != null) {
+            map = pingInfo.getVersion().getName();
+        } else {
+            map = GeyserImpl.NAME;
+        }
+
+        // Create a hashmap of all game data needed in the query
+        Map<String, String> gameData = new HashMap<>();
+        gameData.put("hostname", motd);
+        gameData.put("gametype", "SMP");
+        gameData.put("game_id", "MINECRAFT");
+        gameData.put("version", GeyserImpl.NAME + " (" + GeyserImpl.GIT_VERSION + ") " + GameProtocol.DEFAULT_BEDROCK_CODEC.getMinecraftVersion());
+        gameData.put("plugins", "");
+        gameData.put("map", map);
+        gameData.put("numplayers", currentPlayerCount);
+        gameData.put("maxplayers", maxPlayerCount);
+        gameData.put("hostport", String.valueOf(geyser.getConfig().getBedrock().port()));
+        gameData.put("hostip", geyser.getConfig().getBedrock().address());
+
+        try {
+            writeString(query, "GeyserMC");
+            query.write((byte) 0x80);
+            query.write((byte) 0x00);
+
+            // Fills the game data
+            for (Map.Entry<String, String> entry : gameData.entrySet()) {
+                writeString(query, entry.getKey());
+                writeString(query, entry.getValue());
+            }
+
+            // Final byte to show the end of the game data
+            query.write(new byte[] { 0x00, 0x01 });
+            return query.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Generate a byte[] storing the player names
+     *
+     * @return The byte[] representation of players
+     */
+    private byte[] createQueryPlayerData(@Nullable GeyserPingInfo pingInfo) {
+        ByteArrayOutputStream query = new ByteArrayOutputStream();
+
+        try {
+            // Start the player section
+            writeString(query, "player_");
+            query.write((byte) 0x00);
+
+            // Fill player names
+            if (pingInfo != null) {
+                for (String username : pingInfo.getPlayerList()) {
+                    writeString(query, username);
+                }
+            }
+
+            // Final byte to show the end of the player data
+            query.write((byte) 0x00);
+            return query.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Partially mimics {@link java.io.DataOutputStream#writeBytes(String)} which is what the Minecraft server uses as of 1.17.1.
+     */
+    private static void writeString(OutputStream stream, String value) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            stream.write((byte) value.charAt(i));
+        }
+        // Padding to indicate the end of the string
+        stream.write((byte) 0x00);
+    }
+
+    private record Responses(long createdAt, ResponseInputs inputs, BedrockPong pong, byte[] queryData) {
+    }
+
+    /**
+     * Everything the responses are created from that can change while Geyser is running.
+     */
+    private record ResponseInputs(@Nullable String description, int onlinePlayers, int maxPlayers,
+                                  @Nullable String versionName, List<String> playerList, int localPlayers) {
+
+        static ResponseInputs of(GeyserImpl geyser, @Nullable GeyserPingInfo pingInfo) {
+            int localPlayers = geyser.getSessionManager().getSessions().size();
+            if (pingInfo == null) {
+                return new ResponseInputs(null, 0, 0, null, List.of(), localPlayers);
+            }
+            GeyserPingInfo.Players players = pingInfo.getPlayers();
+            GeyserPingInfo.Version version = pingInfo.getVersion();
+            return new ResponseInputs(pingInfo.getDescription(), players == null ? 0 : players.getOnline(), players == null ? 0 : players.getMax(),
+                    version == null ? null : version.getName(),
+                    pingInfo.getPlayerList() == null ? List.of() : new ArrayList<>(pingInfo.getPlayerList()), localPlayers);
+        }
+    }
+}
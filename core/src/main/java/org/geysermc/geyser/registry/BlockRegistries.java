@@ -82,6 +82,11 @@ public class BlockRegistries {
      */
     public static final SimpleRegistry<IntSet> INTERACTIVE_MAY_BUILD = SimpleRegistry.create(RegistryLoaders.empty(IntOpenHashSet::new));
 
+    /**
+     * A registry containing the {@link org.geysermc.geyser.level.block.BlockStateFlags} of every Java block state, indexed by block state.
+     */
+    public static final SimpleRegistry<byte[]> BLOCK_STATE_FLAGS = SimpleRegistry.create(RegistryLoaders.empty(() -> new byte[0]));
+
     static {
         BlockRegistryPopulator.populate();
     }
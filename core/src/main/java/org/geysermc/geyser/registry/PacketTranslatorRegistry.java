@@ -32,6 +32,7 @@ import io.netty.channel.EventLoop;
 import org.geysermc.common.PlatformType;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.registry.loader.RegistryLoaders;
+import org.geysermc.geyser.session.ChunkEncodingQueue;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
@@ -61,10 +62,12 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
         PacketTranslator<P> translator = (PacketTranslator<P>) this.mappings.get(clazz);
         if (translator != null) {
             EventLoop eventLoop = session.getEventLoop();
-            if (!translator.shouldExecuteInEventLoop() || eventLoop.inEventLoop()) {
+            if (!translator.shouldExecuteInEventLoop()) {
                 translate0(session, translator, packet);
+            } else if (eventLoop.inEventLoop()) {
+                translateInEventLoop(session, translator, packet);
             } else {
-                eventLoop.execute(() -> translate0(session, translator, packet));
+                eventLoop.execute(() -> translateInEventLoop(session, translator, packet));
             }
             return true;
         } else {
@@ -77,6 +80,16 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
         }
     }
 
+    private <P extends T> void translateInEventLoop(GeyserSession session, PacketTranslator<P> translator, P packet) {
+        ChunkEncodingQueue chunkEncodingQueue = session.getChunkEncodingQueue();
+        if (!(packet instanceof BedrockPacket) && translator.shouldWaitForChunks() && chunkEncodingQueue.isBusy()) {
+            // Chunks that arrived before this packet are still being translated
+            chunkEncodingQueue.defer(() -> translate0(session, translator, packet));
+        } else {
+            translate0(session, translator, packet);
+        }
+    }
+
     private <P extends T> void translate0(GeyserSession session, PacketTranslator<P> translator, P packet) {
         if (session.isClosed()) {
             return;
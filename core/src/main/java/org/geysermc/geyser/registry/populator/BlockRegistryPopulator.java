@@ -39,6 +39,7 @@ import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIntPair;
 import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.level.block.BlockStateFlags;
 import org.geysermc.geyser.level.block.BlockStateValues;
 import org.geysermc.geyser.level.physics.PistonBehavior;
 import org.geysermc.geyser.registry.BlockRegistries;
@@ -67,6 +68,7 @@ public final class BlockRegistryPopulator {
     public static void populate() {
         registerJavaBlocks();
         registerBedrockBlocks();
+        registerBlockStateFlags();
 
         BLOCKS_JSON = null;
     }
@@ -368,6 +370,38 @@ public final class BlockRegistryPopulator {
         BlockRegistries.INTERACTIVE_MAY_BUILD.set(toBlockStateSet((ArrayNode) blockInteractionsJson.get("requires_may_build")));
     }
 
+    /**
+     * Packs the block state properties needed while translating chunks into one array. Must run after both Java and
+     * Bedrock blocks are registered, since the waterlogged states are only known after that.
+     */
+    private static void registerBlockStateFlags() {
+        byte[] flags = new byte[BlockRegistries.JAVA_BLOCKS.get().length];
+        for (int state = 0; state < flags.length; state++) {
+            int stateFlags = 0;
+            if (BlockRegistries.WATERLOGGED.get().contains(state)) {
+                stateFlags |= BlockStateFlags.WATERLOGGED;
+            }
+            boolean piston = BlockStateValues.getPistonValues().containsKey(state);
+            if (piston) {
+                stateFlags |= BlockStateFlags.PISTON;
+            }
+            if (piston || BlockStateValues.getFlowerPotValues().containsKey(state) || BlockStateValues.isNonWaterCauldron(state)) {
+                stateFlags |= BlockStateFlags.BEDROCK_ONLY_BLOCK_ENTITY;
+            }
+            if (BlockRegistries.INTERACTIVE.get().contains(state)) {
+                stateFlags |= BlockStateFlags.INTERACTIVE;
+            }
+            if (BlockRegistries.INTERACTIVE_MAY_BUILD.get().contains(state)) {
+                stateFlags |= BlockStateFlags.INTERACTIVE_MAY_BUILD;
+            }
+            if (BlockStateValues.getSkullVariant(state) != -1) {
+                stateFlags |= BlockStateFlags.SKULL;
+            }
+            flags[state] = (byte) stateFlags;
+        }
+        BlockRegistries.BLOCK_STATE_FLAGS.set(flags);
+    }
+
     private static IntSet toBlockStateSet(ArrayNode node) {
         IntSet blockStateSet = new IntOpenHashSet(node.size());
         for (JsonNode javaIdentifier : node) {
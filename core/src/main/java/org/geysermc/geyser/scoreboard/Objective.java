@@ -27,11 +27,14 @@ package org.geysermc.geyser.scoreboard;
 
 import com.github.steveice10.mc.protocol.data.game.scoreboard.ScoreboardPosition;
 import com.github.steveice10.mc.protocol.data.game.scoreboard.TeamColor;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 @Getter
 public final class Objective {
@@ -48,7 +51,12 @@ public final class Objective {
     private String displayName = "unknown";
     private int type = 0; // 0 = integer, 1 = heart
 
-    private Map<String, Score> scores = new ConcurrentHashMap<>();
+    private Map<String, Score> scores = new HashMap<>();
+    /**
+     * Scores that have changed since they were last sent, so updates don't have to go through every score.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Set<Score> changedScores = new ObjectOpenHashSet<>();
 
     private Objective(Scoreboard scoreboard) {
         this.id = scoreboard.getNextId().getAndIncrement();
@@ -87,7 +95,7 @@ public final class Objective {
     public void registerScore(String id, int score) {
         if (!scores.containsKey(id)) {
             long scoreId = scoreboard.getNextId().getAndIncrement();
-            Score scoreObject = new Score(scoreId, id)
+            Score scoreObject = new Score(this, scoreId, id)
                     .setScore(score)
                     .setTeam(scoreboard.getTeamFor(id))
                     .setUpdateType(UpdateType.ADD);
@@ -112,6 +120,15 @@ public final class Objective {
         }
     }
 
+    /**
+     * Marks a score to be sent on the next update, even if it hasn't changed itself
+     */
+    void markChanged(Score score) {
+        if (scores != null) {
+            changedScores.add(score);
+        }
+    }
+
     /**
      * Used internally to remove a score from the score map
      */
@@ -176,5 +193,6 @@ public final class Objective {
         active = false;
         updateType = UpdateType.REMOVE;
         scores = null;
+        changedScores.clear();
     }
 }
@@ -26,12 +26,15 @@
 package org.geysermc.geyser.scoreboard;
 
 import com.nukkitx.protocol.bedrock.data.ScoreInfo;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
 @Getter
 @Accessors(chain = true)
 public final class Score {
+    @Getter(AccessLevel.NONE)
+    private final Objective objective;
     private final long id;
     private final String name;
     private ScoreInfo cachedInfo;
@@ -45,7 +48,8 @@ public final class Score {
      */
     private Score.ScoreData cachedData;
 
-    public Score(long id, String name) {
+    public Score(Objective objective, long id, String name) {
+        this.objective = objective;
         this.id = id;
         this.name = name;
         this.currentData = new ScoreData();
@@ -95,6 +99,7 @@ public final class Score {
     public Score setUpdateType(UpdateType updateType) {
         if (updateType != UpdateType.NOTHING) {
             currentData.changed = true;
+            objective.markChanged(this);
         }
         currentData.updateType = updateType;
         return this;
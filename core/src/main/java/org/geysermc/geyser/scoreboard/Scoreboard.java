@@ -40,7 +40,6 @@ import org.geysermc.geyser.text.GeyserLocale;
 
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.geysermc.geyser.scoreboard.UpdateType.*;
@@ -51,10 +50,14 @@ public final class Scoreboard {
     @Getter
     private final AtomicLong nextId = new AtomicLong(0);
 
-    private final Map<String, Objective> objectives = new ConcurrentHashMap<>();
+    private final Map<String, Objective> objectives = new HashMap<>();
     @Getter
     private final Map<ScoreboardPosition, Objective> objectiveSlots = new EnumMap<>(ScoreboardPosition.class);
-    private final Map<String, Team> teams = new ConcurrentHashMap<>(); // updated on multiple threads
+    private final Map<String, Team> teams = new HashMap<>();
+    /**
+     * Teams that have been prepared for sending during the current update.
+     */
+    private final List<Team> updatingTeams = new ArrayList<>();
 
     private int lastAddScoreCount = 0;
     private int lastRemoveScoreCount = 0;
@@ -176,15 +179,13 @@ public final class Scoreboard {
         handleObjective(correctSidebar, addScores, removeScores);
         handleObjective(objectiveSlots.get(ScoreboardPosition.BELOW_NAME), addScores, removeScores);
 
-        Iterator<Team> teamIterator = teams.values().iterator();
-        while (teamIterator.hasNext()) {
-            Team current = teamIterator.next();
-
+        for (Team current : updatingTeams) {
             switch (current.getCachedUpdateType()) {
                 case ADD, UPDATE -> current.markUpdated();
-                case REMOVE -> teamIterator.remove();
+                case REMOVE -> teams.remove(current.getId(), current);
             }
         }
+        updatingTeams.clear();
 
         if (!removeScores.isEmpty()) {
             SetScorePacket setScorePacket = new SetScorePacket();
@@ -211,7 +212,8 @@ public final class Scoreboard {
 
         // hearts can't hold teams, so we treat them differently
         if (objective.getType() == 1) {
-            for (Score score : objective.getScores().values()) {
+            List<Score> changedScores = new ArrayList<>(objective.getChangedScores());
+            for (Score score : changedScores) {
                 boolean update = score.shouldUpdate();
 
                 if (update) {
@@ -225,18 +227,23 @@ public final class Scoreboard {
                     removeScores.add(score.getCachedInfo());
                 }
             }
+            objective.getChangedScores().clear();
             return;
         }
 
         boolean objectiveAdd = objective.getUpdateType() == ADD;
         boolean objectiveUpdate = objective.getUpdateType() == UPDATE;
 
-        for (Score score : objective.getScores().values()) {
+        // Only scores that changed have to be sent, unless the whole objective is (re)sent
+        List<Score> scores = new ArrayList<>(objectiveAdd || objectiveUpdate ?
+                objective.getScores().values() : objective.getChangedScores());
+
+        for (Score score : scores) {
             if (score.getUpdateType() == REMOVE) {
                 removeScores.add(score.getCachedInfo());
                 // score is pending to be removed, so we can remove it from the objective
                 objective.removeScore0(score.getName());
-                break;
+                continue;
             }
 
             Team team = score.getTeam();
@@ -268,6 +275,7 @@ public final class Scoreboard {
 
             score.setUpdateType(NOTHING);
         }
+        objective.getChangedScores().clear();
 
         if (objectiveUpdate) {
             RemoveObjectivePacket removeObjectivePacket = new RemoveObjectivePacket();
@@ -304,6 +312,10 @@ public final class Scoreboard {
         session.sendUpstreamPacket(removeObjectivePacket);
     }
 
+    void markTeamUpdating(Team team) {
+        updatingTeams.add(team);
+    }
+
     public Objective getObjective(String objectiveName) {
         return objectives.get(objectiveName);
     }
@@ -25,18 +25,21 @@
 
 package org.geysermc.geyser.scoreboard;
 
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
 import org.geysermc.geyser.session.GeyserSession;
-import org.geysermc.geyser.session.cache.WorldCache;
 import org.geysermc.geyser.text.GeyserLocale;
 
-import java.util.Collection;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-public final class ScoreboardUpdater extends Thread {
+/**
+ * Sends the scoreboard changes of one session to its client. Changes are sent right away, unless the server sends
+ * scoreboard packets faster than the first threshold; then they are collected and sent at most once every
+ * {@link #FIRST_MILLIS_BETWEEN_UPDATES} to {@link #SECOND_MILLIS_BETWEEN_UPDATES} milliseconds, depending on how many
+ * packets are sent. Everything runs on the session's event loop.
+ */
+public final class ScoreboardUpdater {
     public static final int FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD;
     public static final int SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD = 250;
 
@@ -51,131 +54,91 @@ public final class ScoreboardUpdater extends Thread {
         DEBUG_ENABLED = config.isDebugMode();
     }
 
-    private final GeyserImpl geyser = GeyserImpl.getInstance();
-
-    private long lastUpdate = System.currentTimeMillis();
-    private long lastPacketsPerSecondUpdate = System.currentTimeMillis();
-
-    public static void init() {
-        new ScoreboardUpdater().start();
-    }
-
-    @Override
-    public void run() {
-        while (!geyser.isShuttingDown()) {
-            try {
-                long timeTillAction = getTimeTillNextAction();
-                if (timeTillAction > 0) {
-                    sleepFor(timeTillAction);
-                    continue;
-                }
-
-                long currentTime = System.currentTimeMillis();
-
-                // reset score-packets per second every second
-                Collection<GeyserSession> sessions = geyser.getSessionManager().getSessions().values();
-                if (currentTime - lastPacketsPerSecondUpdate >= 1000) {
-                    lastPacketsPerSecondUpdate = currentTime;
-                    for (GeyserSession session : sessions) {
-                        ScoreboardSession scoreboardSession = session.getWorldCache().getScoreboardSession();
-
-                        int oldPps = scoreboardSession.getPacketsPerSecond();
-                        int newPps = scoreboardSession.getPendingPacketsPerSecond().get();
-
-                        scoreboardSession.packetsPerSecond = newPps;
-                        scoreboardSession.pendingPacketsPerSecond.set(0);
-
-                        // just making sure that all updates are pushed before giving up control
-                        if (oldPps >= FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD &&
-                                newPps < FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-                            session.getWorldCache().getScoreboard().onUpdate();
-                        }
-                    }
-                }
-
-                if (currentTime - lastUpdate >= FIRST_MILLIS_BETWEEN_UPDATES) {
-                    lastUpdate = currentTime;
-
-                    for (GeyserSession session : sessions) {
-                        WorldCache worldCache = session.getWorldCache();
-                        ScoreboardSession scoreboardSession = worldCache.getScoreboardSession();
-
-                        int pps = scoreboardSession.getPacketsPerSecond();
-                        if (pps >= FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-                            boolean reachedSecondThreshold = pps >= SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD;
+    private final GeyserSession session;
 
-                            int millisBetweenUpdates = reachedSecondThreshold ?
-                                    SECOND_MILLIS_BETWEEN_UPDATES :
-                                    FIRST_MILLIS_BETWEEN_UPDATES;
+    private int pendingPacketsPerSecond;
+    private int packetsPerSecond;
+    private long packetsPerSecondStart = System.currentTimeMillis();
 
-                            if (currentTime - scoreboardSession.lastUpdate >= millisBetweenUpdates) {
-                                worldCache.getScoreboard().onUpdate();
-                                scoreboardSession.lastUpdate = currentTime;
+    /**
+     * If the scoreboard has changes that have not been sent yet.
+     */
+    private boolean dirty;
+    private ScheduledFuture<?> scheduledUpdate;
+    private long lastUpdate;
+    private long lastLog;
 
-                                if (DEBUG_ENABLED && (currentTime - scoreboardSession.lastLog >= 60000)) { // one minute
-                                    int threshold = reachedSecondThreshold ?
-                                            SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD :
-                                            FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD;
+    public ScoreboardUpdater(GeyserSession session) {
+        this.session = session;
+    }
 
-                                    geyser.getLogger().info(
-                                            GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached.log", session.bedrockUsername(), threshold, pps) +
-                                                    GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached", (millisBetweenUpdates / 1000.0))
-                                    );
+    /**
+     * Called after the scoreboard has been changed by a packet from the server.
+     */
+    public void update() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - packetsPerSecondStart >= 1000) {
+            // No packets for a whole second means the rate dropped to zero
+            packetsPerSecond = currentTime - packetsPerSecondStart >= 2000 ? 0 : pendingPacketsPerSecond;
+            pendingPacketsPerSecond = 0;
+            packetsPerSecondStart = currentTime;
+        }
+        int pps = Math.max(packetsPerSecond, ++pendingPacketsPerSecond);
 
-                                    scoreboardSession.lastLog = currentTime;
-                                }
-                            }
-                        }
-                    }
-                }
+        int millisBetweenUpdates = getMillisBetweenUpdates(pps);
+        if (millisBetweenUpdates == 0) {
+            flush(currentTime);
+            return;
+        }
 
-                if (DEBUG_ENABLED) {
-                    long timeSpent = System.currentTimeMillis() - currentTime;
-                    if (timeSpent > 0) {
-                        geyser.getLogger().info(String.format(
-                                "Scoreboard updater: took %s ms. Updated %s players",
-                                timeSpent, sessions.size()
-                        ));
-                    }
+        dirty = true;
+        if (scheduledUpdate == null) {
+            long delay = Math.max(0, lastUpdate + millisBetweenUpdates - currentTime);
+            scheduledUpdate = session.scheduleInEventLoop(() -> {
+                scheduledUpdate = null;
+                if (dirty) {
+                    long now = System.currentTimeMillis();
+                    flush(now);
+                    logThrottled(now, pps, millisBetweenUpdates);
                 }
-
-                long timeTillNextAction = getTimeTillNextAction();
-                sleepFor(timeTillNextAction);
-            } catch (Throwable e) {
-                geyser.getLogger().error("Error while translating scoreboard information!", e);
-                // Wait so we don't try to run the scoreboard immediately after this
-                sleepFor(FIRST_MILLIS_BETWEEN_UPDATES);
-            }
+            }, delay, TimeUnit.MILLISECONDS);
         }
     }
 
-    private long getTimeTillNextAction() {
-        long currentTime = System.currentTimeMillis();
-
-        long timeUntilNextUpdate = FIRST_MILLIS_BETWEEN_UPDATES - (currentTime - lastUpdate);
-        long timeUntilPacketReset = 1000 - (currentTime - lastPacketsPerSecondUpdate);
-
-        return Math.min(timeUntilNextUpdate, timeUntilPacketReset);
+    private void flush(long currentTime) {
+        dirty = false;
+        lastUpdate = currentTime;
+        session.getWorldCache().getScoreboard().onUpdate();
     }
 
-    private void sleepFor(long millis) {
-        if (millis <= 0) {
-            return;
+    /**
+     * @return how long to wait between updates at this amount of packets per second, slowing down gradually
+     * between the two thresholds
+     */
+    private static int getMillisBetweenUpdates(int pps) {
+        if (pps < FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
+            return 0;
         }
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        if (pps >= SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
+            return SECOND_MILLIS_BETWEEN_UPDATES;
         }
+        return FIRST_MILLIS_BETWEEN_UPDATES + (SECOND_MILLIS_BETWEEN_UPDATES - FIRST_MILLIS_BETWEEN_UPDATES) *
+                (pps - FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) /
+                (SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD - FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD);
     }
 
-    @RequiredArgsConstructor
-    @Getter
-    public static final class ScoreboardSession {
-        private final GeyserSession session;
-        private final AtomicInteger pendingPacketsPerSecond = new AtomicInteger(0);
-        private int packetsPerSecond;
-        private long lastUpdate;
-        private long lastLog;
+    private void logThrottled(long currentTime, int pps, int millisBetweenUpdates) {
+        if (DEBUG_ENABLED && (currentTime - lastLog >= 60000)) { // one minute
+            int threshold = pps >= SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD ?
+                    SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD :
+                    FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD;
+
+            GeyserImpl.getInstance().getLogger().info(
+                    GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached.log", session.bedrockUsername(), threshold, pps) +
+                            GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached", (millisBetweenUpdates / 1000.0))
+            );
+
+            lastLog = currentTime;
+        }
     }
 }
@@ -94,6 +94,8 @@ public final class Team {
                 removed.add(name);
             }
         }
+        // the scores of these entities still reference this team until the next update
+        markScoresChanged(removed);
         return removed;
     }
 
@@ -147,6 +149,7 @@ public final class Team {
             return;
         }
         updating = true;
+        scoreboard.markTeamUpdating(this);
 
         if (cachedData == null) {
             cachedData = new TeamData();
@@ -172,11 +175,30 @@ public final class Team {
     public Team setUpdateType(UpdateType updateType) {
         if (updateType != UpdateType.NOTHING) {
             currentData.changed = true;
+            // the display names of all scores of this team might have changed
+            markScoresChanged(entities);
         }
         currentData.updateType = updateType;
         return this;
     }
 
+    private void markScoresChanged(Set<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        for (Objective objective : scoreboard.getObjectives()) {
+            if (objective.getScores() == null) {
+                continue;
+            }
+            for (String name : names) {
+                Score score = objective.getScores().get(name);
+                if (score != null) {
+                    objective.markChanged(score);
+                }
+            }
+        }
+    }
+
     public boolean isVisibleFor(String entity) {
         return switch (nameTagVisibility) {
             case HIDE_FOR_OTHER_TEAMS -> {
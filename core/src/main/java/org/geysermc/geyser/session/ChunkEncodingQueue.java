@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import com.github.steveice10.packetlib.tcp.TcpSession;
+import io.netty.channel.Channel;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps Java packets in order while chunks are translated on the chunk encoding thread pool. Chunks are encoded in
+ * parallel but sent in the order they were received, and any other Java packet waits until all chunks received before
+ * it have been sent. A chunk received after such a waiting packet is only started once that packet has been
+ * translated, so it sees the session state the packet left behind, such as the world height after a respawn.
+ * <p>
+ * Everything here except the encoding itself runs on the session's event loop.
+ */
+public class ChunkEncodingQueue {
+    private final GeyserSession session;
+    private final ExecutorService executor;
+    private final int maxPendingChunks;
+
+    private final Queue<Task> tasks = new ArrayDeque<>();
+    private int pendingChunks = 0;
+    /**
+     * How many packets other than chunks are waiting in {@link #tasks}.
+     */
+    private int deferredTasks = 0;
+    private boolean readingPaused = false;
+
+    public ChunkEncodingQueue(GeyserSession session) {
+        this.session = session;
+        this.executor = session.getGeyser().getChunkEncodingExecutor();
+        this.maxPendingChunks = Math.max(1, session.getGeyser().getConfig().getMaxPendingChunks());
+    }
+
+    /**
+     * @return if chunks should be submitted to this queue instead of being translated directly
+     */
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * @return if there are chunks that have not been sent yet, in which case other Java packets need to wait
+     */
+    public boolean isBusy() {
+        return !tasks.isEmpty();
+    }
+
+    /**
+     * Encodes a chunk on the chunk encoding thread pool.
+     *
+     * @param preparer run on the session's event loop once every packet received before this chunk has been
+     *                 translated, right before the encoder is started. Reads the session state the chunk needs.
+     * @param encoder run on the thread pool with what the preparer returned
+     * @param sender run on the session's event loop once this chunk and everything before it has been encoded.
+     *               Not run if the encoder throws an exception.
+     */
+    public <T> void submit(Supplier<T> preparer, Consumer<T> encoder, Consumer<T> sender) {
+        Task task = new Task(null, true);
+        task.starter = () -> {
+            T state = preparer.get();
+            task.runnable = () -> sender.accept(state);
+            return () -> encoder.accept(state);
+        };
+        boolean waiting = deferredTasks > 0;
+        tasks.add(task);
+        pendingChunks++;
+
+        if (!waiting) {
+            start(task);
+        }
+
+        if (!readingPaused && pendingChunks >= maxPendingChunks) {
+            // Stop reading from the Java server until enough chunks have been sent
+            setReading(false);
+        }
+    }
+
+    private void start(Task task) {
+        Supplier<Runnable> starter = task.starter;
+        task.starter = null;
+        Runnable encoder;
+        try {
+            encoder = starter.get();
+        } catch (Throwable e) {
+            session.getGeyser().getLogger().error("Error thrown while preparing a chunk for " + session.bedrockUsername() + "!", e);
+            task.failed = true;
+            task.done = true;
+            session.getEventLoop().execute(this::drain);
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    encoder.run();
+                } catch (Throwable e) {
+                    session.getGeyser().getLogger().error("Error thrown while encoding a chunk for " + session.bedrockUsername() + "!", e);
+                    task.failed = true;
+                }
+                task.done = true;
+                session.getEventLoop().execute(this::drain);
+            });
+        } catch (RejectedExecutionException e) {
+            // Geyser is shutting down
+            task.failed = true;
+            task.done = true;
+            session.getEventLoop().execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs a task once all chunks submitted before it have been sent. Should only be used if {@link #isBusy()} is true.
+     */
+    public void defer(Runnable runnable) {
+        Task task = new Task(runnable, false);
+        task.done = true;
+        tasks.add(task);
+        deferredTasks++;
+    }
+
+    private void drain() {
+        Task task;
+        while ((task = tasks.peek()) != null && task.done) {
+            tasks.poll();
+            if (task.chunk) {
+                pendingChunks--;
+            } else {
+                deferredTasks--;
+            }
+
+            if (!task.failed) {
+                try {
+                    task.runnable.run();
+                } catch (Throwable e) {
+                    session.getGeyser().getLogger().error("Error thrown in " + session.bedrockUsername() + "'s event loop!", e);
+                }
+            }
+        }
+
+        // Start the chunks that were waiting for the packets that have just been translated
+        for (Task waiting : tasks) {
+            if (!waiting.chunk) {
+                break;
+            }
+            if (waiting.starter != null) {
+                start(waiting);
+            }
+        }
+
+        if (readingPaused && pendingChunks <= maxPendingChunks / 2) {
+            setReading(true);
+        }
+    }
+
+    private void setReading(boolean reading) {
+        readingPaused = !reading;
+
+        TcpSession downstream = session.getDownstream();
+        Channel channel = downstream != null ? downstream.getChannel() : null;
+        if (channel != null) {
+            channel.config().setAutoRead(reading);
+        }
+    }
+
+    private static final class Task {
+        private Runnable runnable;
+        private final boolean chunk;
+        /**
+         * Prepares a chunk and returns its encoder. Set until the chunk has been started.
+         */
+        private Supplier<Runnable> starter;
+        private volatile boolean done = false;
+        private boolean failed = false;
+
+        private Task(Runnable runnable, boolean chunk) {
+            this.runnable = runnable;
+            this.chunk = chunk;
+        }
+    }
+}
@@ -116,6 +116,7 @@ import org.geysermc.geyser.inventory.PlayerInventory;
 import org.geysermc.geyser.inventory.recipe.GeyserRecipe;
 import org.geysermc.geyser.inventory.recipe.GeyserStonecutterData;
 import org.geysermc.geyser.level.JavaDimension;
+import org.geysermc.geyser.level.MapCanvas;
 import org.geysermc.geyser.level.WorldManager;
 import org.geysermc.geyser.level.physics.CollisionManager;
 import org.geysermc.geyser.network.netty.LocalSession;
@@ -127,6 +128,7 @@ import org.geysermc.geyser.session.auth.AuthData;
 import org.geysermc.geyser.session.auth.BedrockClientData;
 import org.geysermc.geyser.session.cache.*;
 import org.geysermc.geyser.skin.FloodgateSkinUploader;
+import org.geysermc.geyser.skin.PlayerListSkinQueue;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.text.MinecraftLocale;
 import org.geysermc.geyser.text.TextDecoration;
@@ -136,6 +138,8 @@ import org.geysermc.geyser.util.ChunkUtils;
 import org.geysermc.geyser.util.DimensionUtils;
 import org.geysermc.geyser.util.LoginEncryptionUtils;
 import org.geysermc.geyser.util.MathUtils;
+import org.geysermc.geyser.util.collection.ChunkPositionMap;
+import org.geysermc.geyser.util.collection.ChunkPositionSet;
 
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
@@ -157,6 +161,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
      * If this is manually called, ensure that any exceptions are properly handled.
      */
     private final @NonNull EventLoop eventLoop;
+    private final ChunkEncodingQueue chunkEncodingQueue;
     private TcpSession downstream;
     @Setter
     private AuthData authData;
@@ -179,6 +184,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     private final SessionPlayerEntity playerEntity;
 
     private final AdvancementsCache advancementsCache;
+    private final BlobCache blobCache;
     private final BookEditCache bookEditCache;
     private final ChunkCache chunkCache;
     private final EntityCache entityCache;
@@ -188,6 +194,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     private final PistonCache pistonCache;
     private final PreferencesCache preferencesCache;
     private final SkullCache skullCache;
+    private final SubChunkCache subChunkCache;
     private final TagCache tagCache;
     private final WorldCache worldCache;
 
@@ -195,6 +202,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     private TeleportCache unconfirmedTeleport;
 
     private final WorldBorder worldBorder;
+    private final PlayerListSkinQueue playerListSkinQueue;
     /**
      * Whether simulated fog has been sent to the client or not.
      */
@@ -237,6 +245,11 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
 
     private final Long2ObjectMap<ClientboundMapItemDataPacket> storedMaps = new Long2ObjectOpenHashMap<>();
 
+    /**
+     * The last known contents of each map, to only send what changed.
+     */
+    private final Long2ObjectMap<MapCanvas> mapCanvases = new Long2ObjectOpenHashMap<>();
+
     /**
      * Required to decode biomes correctly.
      */
@@ -251,14 +264,14 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
      * A map of Vector3i positions to Java entities.
      * Used for translating Bedrock block actions to Java entity actions.
      */
-    private final Map<Vector3i, ItemFrameEntity> itemFrameCache = new Object2ObjectOpenHashMap<>();
+    private final ChunkPositionMap<ItemFrameEntity> itemFrameCache = new ChunkPositionMap<>();
 
     /**
      * Stores a list of all lectern locations and their block entity tags.
      * See {@link WorldManager#getLecternDataAt(GeyserSession, int, int, int, boolean)}
      * for more information.
      */
-    private final Set<Vector3i> lecternCache;
+    private final ChunkPositionSet lecternCache;
 
     /**
      * A list of all players that have a player head on with a custom texture.
@@ -545,8 +558,15 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         this.geyser = geyser;
         this.upstream = new UpstreamSession(bedrockServerSession);
         this.eventLoop = eventLoop;
+        this.chunkEncodingQueue = new ChunkEncodingQueue(this);
+        if (geyser.getConfig().getUpstreamBatchWindow() > 0) {
+            this.upstream.setBatcher(new UpstreamPacketBatcher(bedrockServerSession, eventLoop,
+                    geyser.getConfig().getUpstreamBatchWindow(), geyser.getConfig().getUpstreamBatchMaxPackets()));
+        }
 
         this.advancementsCache = new AdvancementsCache(this);
+        this.blobCache = new BlobCache(this);
+        this.subChunkCache = new SubChunkCache(this);
         this.bookEditCache = new BookEditCache(this);
         this.chunkCache = new ChunkCache(this);
         this.entityCache = new EntityCache(this);
@@ -560,6 +580,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         this.worldCache = new WorldCache(this);
 
         this.worldBorder = new WorldBorder(this);
+        this.playerListSkinQueue = new PlayerListSkinQueue(this, geyser.getConfig().getPlayerListSkinsPerSecond());
 
         this.collisionManager = new CollisionManager(this);
 
@@ -578,7 +599,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
             // Unneeded on these platforms
             this.lecternCache = null;
         } else {
-            this.lecternCache = new ObjectOpenHashSet<>();
+            this.lecternCache = new ChunkPositionSet();
         }
 
         if (geyser.getConfig().getEmoteOffhandWorkaround() != EmoteOffhandWorkaroundOption.NO_EMOTES) {
@@ -1064,6 +1085,8 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
                     task.setOnline(false);
                 }
             }
+            // Give the memory of cached chunks back to other sessions
+            executeInEventLoop(chunkCache::clear);
         }
 
         if (tickThread != null) {
@@ -1104,6 +1127,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
      */
     protected void tick() {
         try {
+            collisionManager.invalidateNeighbourhood();
             pistonCache.tick();
             // Check to see if the player's position needs updating - a position update should be sent once every 3 seconds
             if (spawned && (System.currentTimeMillis() - lastMovementTimestamp) > 3000) {
@@ -1524,7 +1548,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     }
 
     /**
-     * Send a packet immediately to the player.
+     * Send a packet immediately to the player. This skips packets that are held back to be batched together.
      *
      * @param packet the bedrock packet from the NukkitX protocol lib
      */
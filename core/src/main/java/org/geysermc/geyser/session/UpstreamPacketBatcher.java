@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.BedrockServerSession;
+import io.netty.channel.EventLoop;
+import org.geysermc.geyser.util.Histogram;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds back packets to the Bedrock client for a short time, so packets sent close together end up in the same
+ * compressed batch instead of many small ones. Packets keep their order.
+ */
+public final class UpstreamPacketBatcher {
+    /**
+     * How many packets were sent together, across all sessions.
+     */
+    public static final Histogram BATCH_SIZES = Histogram.exponential(11);
+    /**
+     * How many milliseconds the first packet of each batch was held back, across all sessions.
+     */
+    public static final Histogram FLUSH_LATENCIES = Histogram.exponential(8);
+
+    private final BedrockServerSession session;
+    private final EventLoop eventLoop;
+    private final int window;
+    private final int maxPackets;
+
+    private final Queue<BedrockPacket> packets = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile long firstPacketTime;
+
+    /**
+     * @param window how many milliseconds packets are held back at most
+     * @param maxPackets how many packets can be held back before they are sent early
+     */
+    public UpstreamPacketBatcher(BedrockServerSession session, EventLoop eventLoop, int window, int maxPackets) {
+        this.session = session;
+        this.eventLoop = eventLoop;
+        this.window = window;
+        this.maxPackets = maxPackets;
+    }
+
+    public void add(BedrockPacket packet) {
+        packets.add(packet);
+        int size = this.size.incrementAndGet();
+        if (size == 1) {
+            firstPacketTime = System.nanoTime();
+            eventLoop.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+        } else if (size == maxPackets) {
+            eventLoop.execute(this::flush);
+        }
+    }
+
+    /**
+     * Hands all held back packets to the Bedrock session, which sends them together.
+     */
+    public void flush() {
+        int count = size.getAndSet(0);
+        if (count == 0) {
+            return;
+        }
+
+        long latency = System.nanoTime() - firstPacketTime;
+        for (int i = 0; i < count; i++) {
+            session.sendPacket(packets.poll());
+        }
+
+        BATCH_SIZES.record(count);
+        FLUSH_LATENCIES.record(TimeUnit.NANOSECONDS.toMillis(latency));
+    }
+}
@@ -42,20 +42,39 @@ public class UpstreamSession {
     @Getter @Setter
     private boolean initialized = false;
     private Queue<BedrockPacket> postStartGamePackets = new ArrayDeque<>();
+    /**
+     * Null if packets are not held back to be batched together.
+     */
+    @Setter
+    private UpstreamPacketBatcher batcher;
 
     public void sendPacket(@NonNull BedrockPacket packet) {
         if (!isClosed()) {
-            session.sendPacket(packet);
+            if (batcher != null) {
+                batcher.add(packet);
+            } else {
+                session.sendPacket(packet);
+            }
         }
     }
 
+    /**
+     * Sends the packet without waiting for the next batch. Packets held back by the batcher are handed to the session
+     * first, so this packet does not overtake them any more than it does without batching.
+     */
     public void sendPacketImmediately(@NonNull BedrockPacket packet) {
         if (!isClosed()) {
+            if (batcher != null) {
+                batcher.flush();
+            }
             session.sendPacketImmediately(packet);
         }
     }
 
     public void disconnect(String reason) {
+        if (batcher != null) {
+            batcher.flush();
+        }
         session.disconnect(reason);
     }
 
@@ -73,7 +92,8 @@ public class UpstreamSession {
 
         BedrockPacket packet;
         while ((packet = postStartGamePackets.poll()) != null) {
-            session.sendPacket(packet);
+            // Through the batcher, so these stay behind the StartGamePacket
+            sendPacket(packet);
         }
         postStartGamePackets = null;
     }
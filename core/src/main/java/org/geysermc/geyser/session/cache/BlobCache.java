@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import com.nukkitx.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import com.nukkitx.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import it.unimi.dsi.fastutil.longs.*;
+import lombok.Getter;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.util.XXHash64;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the state of the Bedrock client blob cache. If the client supports it, chunk sections and biome data are
+ * only sent as hashes, and the client tells us which of those it doesn't have stored yet.
+ */
+public class BlobCache {
+    /**
+     * How many blobs can wait for the client's answer, which is enough for several hundred chunks.
+     */
+    private static final int MAX_PENDING_BLOBS = 8192;
+    /**
+     * How long the client has to tell us if it has a blob stored.
+     */
+    private static final long PENDING_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final GeyserSession session;
+
+    /**
+     * If the client told us it supports the blob cache, and it is enabled in the config.
+     */
+    @Getter
+    private boolean enabled = false;
+
+    /**
+     * Blobs that have been referenced in a chunk, but the client has not told us yet if it has them stored.
+     * In the order they were last referenced, so the oldest can be dropped if the client never answers.
+     */
+    private final Long2ObjectLinkedOpenHashMap<PendingBlob> pendingBlobs = new Long2ObjectLinkedOpenHashMap<>();
+    @Getter
+    private long hits = 0;
+    @Getter
+    private long misses = 0;
+
+    public BlobCache(GeyserSession session) {
+        this.session = session;
+    }
+
+    public void setSupported(boolean supported) {
+        this.enabled = supported && session.getGeyser().getConfig().isEnableClientBlobCache();
+    }
+
+    /**
+     * Registers the blobs of a chunk that is about to be sent to the client.
+     *
+     * @param blobs the serialized blobs, in the order the client expects them
+     * @param ids the list to add the ID of each blob to
+     */
+    public void addBlobs(List<byte[]> blobs, LongList ids) {
+        long currentTime = System.currentTimeMillis();
+        LongSet chunkIds = new LongOpenHashSet(blobs.size());
+        for (byte[] blob : blobs) {
+            long id = XXHash64.hash(blob);
+            ids.add(id);
+            // The client only reports the status of each blob once per chunk
+            if (chunkIds.add(id)) {
+                PendingBlob pending = pendingBlobs.getAndMoveToLast(id);
+                if (pending == null) {
+                    pendingBlobs.put(id, new PendingBlob(blob, currentTime));
+                } else {
+                    pending.references++;
+                    pending.lastReferenced = currentTime;
+                }
+            }
+        }
+        dropExpired(currentTime);
+    }
+
+    /**
+     * Drops the blobs the client has not answered for in time, or the oldest ones if there are too many.
+     */
+    private void dropExpired(long currentTime) {
+        while (!pendingBlobs.isEmpty()) {
+            PendingBlob oldest = pendingBlobs.get(pendingBlobs.firstLongKey());
+            if (pendingBlobs.size() <= MAX_PENDING_BLOBS && currentTime - oldest.lastReferenced < PENDING_TIMEOUT_MILLIS) {
+                break;
+            }
+            pendingBlobs.removeFirst();
+        }
+    }
+
+    /**
+     * Responds to the blobs the client does not have, and releases the ones it does.
+     */
+    public void handleBlobStatus(ClientCacheBlobStatusPacket packet) {
+        ClientCacheMissResponsePacket response = new ClientCacheMissResponsePacket();
+        for (long id : packet.getNaks()) {
+            PendingBlob pending = pendingBlobs.get(id);
+            if (pending == null) {
+                session.getGeyser().getLogger().debug("Client requested unknown blob " + id);
+                continue;
+            }
+            response.getBlobs().put(id, pending.blob);
+            release(id);
+            misses++;
+        }
+
+        for (long id : packet.getAcks()) {
+            release(id);
+            hits++;
+        }
+
+        if (!response.getBlobs().isEmpty()) {
+            session.sendUpstreamPacket(response);
+        }
+    }
+
+    private void release(long id) {
+        PendingBlob pending = pendingBlobs.get(id);
+        if (pending != null && --pending.references <= 0) {
+            pendingBlobs.remove(id);
+        }
+    }
+
+    private static final class PendingBlob {
+        private final byte[] blob;
+        /**
+         * How many chunks are waiting for the status of this blob, so identical blobs in multiple chunks are not
+         * removed early.
+         */
+        private int references = 1;
+        private long lastReferenced;
+
+        private PendingBlob(byte[] blob, long lastReferenced) {
+            this.blob = blob;
+            this.lastReferenced = lastReferenced;
+        }
+    }
+}
@@ -22,23 +22,71 @@
  * @author GeyserMC
  * @link https://github.com/GeyserMC/Geyser
  */
-
 package org.geysermc.geyser.session.cache;
 
 import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.nukkitx.math.vector.Vector3f;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import lombok.Getter;
 import lombok.Setter;
+import org.geysermc.geyser.api.network.RemoteServer;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.block.BlockStateValues;
-import org.geysermc.geyser.level.chunk.GeyserChunk;
+import org.geysermc.geyser.level.chunk.ChunkMemoryPool;
+import org.geysermc.geyser.level.chunk.CompactSection;
+import org.geysermc.geyser.level.chunk.SharedChunkStore;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.MathUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Stores the blocks of all chunks the client has loaded, for platforms that don't have their own chunk cache.
+ * <p>
+ * Chunks are grouped into regions of 32x32 chunks so neighbouring chunks are found with one map lookup. If the session
+ * goes over its chunk limit or all sessions together go over the memory budget, the chunks farthest from the player are
+ * evicted first. Chunks within the view distance are never evicted, as collision and movement correction need them. If enabled, chunks are shared with other sessions in the same world through the
+ * {@link SharedChunkStore}.
+ */
 public class ChunkCache {
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_MASK = (1 << REGION_SHIFT) - 1;
+    /**
+     * Never evict chunks because of the memory budget below this amount - 17x17 chunks is a render distance of 8.
+     */
+    private static final int MIN_CHUNKS = 289;
+    private static final Comparator<CachedChunk> FARTHEST_FIRST = Comparator.comparingInt((CachedChunk chunk) -> chunk.distance).reversed();
+
+    private final GeyserSession session;
     private final boolean cache;
-    private final Long2ObjectMap<GeyserChunk> chunks;
+    private final ChunkMemoryPool pool;
+    /**
+     * Null if chunks are not shared between sessions.
+     */
+    private final SharedChunkStore sharedStore;
+    private final int maxChunks;
+    private final Long2ObjectMap<Region> regions;
+
+    /**
+     * Block lookups tend to hit the same chunk over and over again, so skip the map for those.
+     */
+    private CachedChunk lastChunk;
+    @Getter
+    private int chunkCount;
+
+    /**
+     * Set when the last eviction pass could not free enough because every remaining chunk was near the player. Until
+     * the player moves to another chunk, only chunks added since then can be evicted, so the others are not checked
+     * again.
+     */
+    private boolean evictionBlocked;
+    private int blockedChunkX;
+    private int blockedChunkZ;
+    private int blockedKeepDistance;
 
     @Setter
     private int minY;
@@ -53,26 +101,88 @@ public class ChunkCache {
     private BedrockDimension bedrockDimension = BedrockDimension.OVERWORLD;
 
     public ChunkCache(GeyserSession session) {
+        this.session = session;
         this.cache = !session.getGeyser().getWorldManager().hasOwnChunkCache(); // To prevent Spigot from initializing
-        chunks = cache ? new Long2ObjectOpenHashMap<>() : null;
+        this.pool = session.getGeyser().getChunkMemoryPool();
+        this.sharedStore = cache ? session.getGeyser().getSharedChunkStore() : null;
+        this.maxChunks = session.getGeyser().getConfig().getChunkCacheMaxChunks();
+        regions = cache ? new Long2ObjectOpenHashMap<>() : null;
     }
 
-    public void addToCache(int x, int z, DataPalette[] chunks) {
+    /**
+     * @return if chunks are shared with other sessions, and {@link #addToCache(int, int, DataPalette[], long)} needs
+     * the hash of the chunk data
+     */
+    public boolean isShared() {
+        return sharedStore != null;
+    }
+
+    /**
+     * @param contentHash the {@link SharedChunkStore#hash(byte[])} of the chunk data if {@link #isShared()}
+     */
+    public void addToCache(int x, int z, DataPalette[] chunks, long contentHash) {
         if (!cache) {
             return;
         }
 
-        long chunkPosition = MathUtils.chunkPositionToLong(x, z);
-        GeyserChunk geyserChunk = GeyserChunk.from(chunks);
-        this.chunks.put(chunkPosition, geyserChunk);
+        CompactSection[] sections;
+        SharedChunkStore.SharedChunk shared = null;
+        if (sharedStore != null) {
+            RemoteServer remoteServer = session.remoteServer();
+            String world = remoteServer.address() + ":" + remoteServer.port() + "/" + session.getWorldName();
+            shared = sharedStore.acquire(world, MathUtils.chunkPositionToLong(x, z), contentHash, chunks);
+            sections = shared.sections();
+        } else {
+            sections = new CompactSection[chunks.length];
+            for (int i = 0; i < chunks.length; i++) {
+                if (chunks[i] != null) {
+                    sections[i] = CompactSection.from(pool, chunks[i]);
+                }
+            }
+        }
+
+        long regionPosition = MathUtils.chunkPositionToLong(x >> REGION_SHIFT, z >> REGION_SHIFT);
+        Region region = regions.get(regionPosition);
+        if (region == null) {
+            region = new Region(regionPosition);
+            regions.put(regionPosition, region);
+        }
+
+        int index = Region.index(x, z);
+        CachedChunk previous = region.chunks[index];
+        if (previous != null) {
+            remove(region, previous);
+        }
+
+        CachedChunk chunk = new CachedChunk(x, z, sections, shared);
+        region.chunks[index] = chunk;
+        region.count++;
+        chunkCount++;
+        // The collision neighbourhood may have looked up this chunk as air
+        session.getCollisionManager().invalidateNeighbourhood();
+
+        evictIfNeeded(region, chunk);
     }
 
     /**
      * Doesn't check for cache enabled, so don't use this without checking that first!
      */
-    private GeyserChunk getChunk(int chunkX, int chunkZ) {
-        long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
-        return chunks.getOrDefault(chunkPosition, null);
+    private CachedChunk getChunk(int chunkX, int chunkZ) {
+        CachedChunk chunk = lastChunk;
+        if (chunk != null && chunk.x == chunkX && chunk.z == chunkZ) {
+            return chunk;
+        }
+
+        Region region = regions.get(MathUtils.chunkPositionToLong(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT));
+        if (region == null) {
+            return null;
+        }
+
+        chunk = region.chunks[Region.index(chunkX, chunkZ)];
+        if (chunk != null) {
+            lastChunk = chunk;
+        }
+        return chunk;
     }
 
     public void updateBlock(int x, int y, int z, int block) {
@@ -80,31 +190,54 @@ public class ChunkCache {
             return;
         }
 
-        GeyserChunk chunk = this.getChunk(x >> 4, z >> 4);
+        CachedChunk chunk = this.getChunk(x >> 4, z >> 4);
         if (chunk == null) {
             return;
         }
 
-        if (y < minY || ((y - minY) >> 4) > chunk.sections().length - 1) {
+        if (y < minY || ((y - minY) >> 4) > chunk.sections.length - 1) {
             // Y likely goes above or below the height limit of this world
             return;
         }
 
-        DataPalette palette = chunk.sections()[(y - minY) >> 4];
-        if (palette == null) {
+        int sectionIndex = (y - minY) >> 4;
+        CompactSection section = chunk.sections[sectionIndex];
+        if (chunk.shared != null) {
+            int current = section == null ? BlockStateValues.JAVA_AIR_ID : section.get(x & 0xF, y & 0xF, z & 0xF);
+            if (current == block) {
+                return;
+            }
+
+            if (sharedStore.update(chunk.shared, sectionIndex, x & 0xF, y & 0xF, z & 0xF, block)) {
+                // No other session uses this chunk, so it was changed in place
+                return;
+            }
+
+            // Other sessions use this chunk too, so it can no longer be shared
+            CompactSection[] sections = new CompactSection[chunk.sections.length];
+            for (int i = 0; i < sections.length; i++) {
+                if (chunk.sections[i] != null) {
+                    sections[i] = chunk.sections[i].copy();
+                }
+            }
+            sharedStore.release(chunk.shared);
+            chunk.shared = null;
+            chunk.sections = sections;
+            section = sections[sectionIndex];
+        }
+
+        if (section == null) {
             if (block != BlockStateValues.JAVA_AIR_ID) {
                 // A previously empty chunk, which is no longer empty as a block has been added to it
-                palette = DataPalette.createForChunk();
-                // Fixes the chunk assuming that all blocks is the `block` variable we are updating. /shrug
-                palette.getPalette().stateToId(BlockStateValues.JAVA_AIR_ID);
-                chunk.sections()[(y - minY) >> 4] = palette;
+                section = CompactSection.of(pool, BlockStateValues.JAVA_AIR_ID);
+                chunk.sections[sectionIndex] = section;
             } else {
                 // Nothing to update
                 return;
             }
         }
 
-        palette.set(x & 0xF, y & 0xF, z & 0xF, block);
+        section.set(x & 0xF, y & 0xF, z & 0xF, block);
     }
 
     public int getBlockAt(int x, int y, int z) {
@@ -112,17 +245,17 @@ public class ChunkCache {
             return BlockStateValues.JAVA_AIR_ID;
         }
 
-        GeyserChunk column = this.getChunk(x >> 4, z >> 4);
+        CachedChunk column = this.getChunk(x >> 4, z >> 4);
         if (column == null) {
             return BlockStateValues.JAVA_AIR_ID;
         }
 
-        if (y < minY || ((y - minY) >> 4) > column.sections().length - 1) {
+        if (y < minY || ((y - minY) >> 4) > column.sections.length - 1) {
             // Y likely goes above or below the height limit of this world
             return BlockStateValues.JAVA_AIR_ID;
         }
 
-        DataPalette chunk = column.sections()[(y - minY) >> 4];
+        CompactSection chunk = column.sections[(y - minY) >> 4];
         if (chunk != null) {
             return chunk.get(x & 0xF, y & 0xF, z & 0xF);
         }
@@ -130,13 +263,65 @@ public class ChunkCache {
         return BlockStateValues.JAVA_AIR_ID;
     }
 
+    /**
+     * Fills the given array with the blocks of a cuboid, looking up each chunk and section once.
+     * See {@link org.geysermc.geyser.level.WorldManager#getBlocks} for the order of the blocks.
+     */
+    public void getBlocks(int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockStateValues.JAVA_AIR_ID);
+        if (!cache) {
+            return;
+        }
+
+        int maxX = originX + sizeX - 1;
+        int maxZ = originZ + sizeZ - 1;
+        for (int chunkX = originX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = originZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                CachedChunk column = this.getChunk(chunkX, chunkZ);
+                if (column == null) {
+                    continue;
+                }
+
+                int startX = Math.max(originX, chunkX << 4);
+                int endX = Math.min(maxX, (chunkX << 4) + 15);
+                int startZ = Math.max(originZ, chunkZ << 4);
+                int endZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                for (int y = Math.max(originY, minY); y < originY + sizeY; y++) {
+                    int sectionIndex = (y - minY) >> 4;
+                    if (sectionIndex >= column.sections.length) {
+                        break;
+                    }
+                    CompactSection section = column.sections[sectionIndex];
+                    if (section == null) {
+                        continue;
+                    }
+
+                    for (int x = startX; x <= endX; x++) {
+                        int index = ((y - originY) * sizeX + (x - originX)) * sizeZ + (startZ - originZ);
+                        for (int z = startZ; z <= endZ; z++) {
+                            blocks[index++] = section.get(x & 0xF, y & 0xF, z & 0xF);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     public void removeChunk(int chunkX, int chunkZ) {
         if (!cache) {
             return;
         }
 
-        long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
-        chunks.remove(chunkPosition);
+        Region region = regions.get(MathUtils.chunkPositionToLong(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT));
+        if (region == null) {
+            return;
+        }
+
+        CachedChunk chunk = region.chunks[Region.index(chunkX, chunkZ)];
+        if (chunk != null) {
+            remove(region, chunk);
+            session.getCollisionManager().invalidateNeighbourhood();
+        }
     }
 
     /**
@@ -149,7 +334,17 @@ public class ChunkCache {
             return;
         }
 
-        chunks.clear();
+        for (Region region : regions.values()) {
+            for (CachedChunk chunk : region.chunks) {
+                if (chunk != null) {
+                    free(chunk);
+                }
+            }
+        }
+        regions.clear();
+        lastChunk = null;
+        chunkCount = 0;
+        evictionBlocked = false;
     }
 
     public int getChunkMinY() {
@@ -159,4 +354,125 @@ public class ChunkCache {
     public int getChunkHeightY() {
         return heightY >> 4;
     }
+
+    private boolean shouldEvict() {
+        if (maxChunks > 0 && chunkCount > maxChunks) {
+            return true;
+        }
+        return chunkCount > MIN_CHUNKS && pool.isOverBudget();
+    }
+
+    /**
+     * @param added the chunk that was just added to the given region
+     */
+    private void evictIfNeeded(Region region, CachedChunk added) {
+        if (!shouldEvict()) {
+            evictionBlocked = false;
+            return;
+        }
+
+        Vector3f position = session.getPlayerEntity().getPosition();
+        int playerChunkX = position.getFloorX() >> 4;
+        int playerChunkZ = position.getFloorZ() >> 4;
+        // The server may send one chunk more than its view distance
+        int keepDistance = session.getServerRenderDistance() + 1;
+
+        if (evictionBlocked && blockedChunkX == playerChunkX && blockedChunkZ == playerChunkZ && blockedKeepDistance == keepDistance) {
+            // Every other chunk was already too close to evict during the last pass
+            if (Math.max(Math.abs(added.x - playerChunkX), Math.abs(added.z - playerChunkZ)) > keepDistance) {
+                remove(region, added);
+            }
+            return;
+        }
+
+        List<CachedChunk> candidates = new ArrayList<>();
+        for (Region region : regions.values()) {
+            for (CachedChunk chunk : region.chunks) {
+                if (chunk != null) {
+                    chunk.distance = Math.max(Math.abs(chunk.x - playerChunkX), Math.abs(chunk.z - playerChunkZ));
+                    if (chunk.distance > keepDistance) {
+                        candidates.add(chunk);
+                    }
+                }
+            }
+        }
+        candidates.sort(FARTHEST_FIRST);
+
+        for (CachedChunk chunk : candidates) {
+            if (!shouldEvict()) {
+                evictionBlocked = false;
+                return;
+            }
+            remove(regions.get(MathUtils.chunkPositionToLong(chunk.x >> REGION_SHIFT, chunk.z >> REGION_SHIFT)), chunk);
+        }
+
+        evictionBlocked = shouldEvict();
+        blockedChunkX = playerChunkX;
+        blockedChunkZ = playerChunkZ;
+        blockedKeepDistance = keepDistance;
+    }
+
+    private void remove(Region region, CachedChunk chunk) {
+        free(chunk);
+        if (lastChunk == chunk) {
+            lastChunk = null;
+        }
+
+        region.chunks[Region.index(chunk.x, chunk.z)] = null;
+        if (--region.count == 0) {
+            regions.remove(region.position);
+        }
+        chunkCount--;
+    }
+
+    private void free(CachedChunk chunk) {
+        if (chunk.shared != null) {
+            sharedStore.release(chunk.shared);
+            return;
+        }
+
+        for (CompactSection section : chunk.sections) {
+            if (section != null) {
+                section.free();
+            }
+        }
+    }
+
+    private static final class Region {
+        private final long position;
+        private final CachedChunk[] chunks = new CachedChunk[1 << (REGION_SHIFT * 2)];
+        private int count;
+
+        private Region(long position) {
+            this.position = position;
+        }
+
+        private static int index(int chunkX, int chunkZ) {
+            return ((chunkX & REGION_MASK) << REGION_SHIFT) | (chunkZ & REGION_MASK);
+        }
+    }
+
+    /**
+     * Acts as a lightweight chunk class that doesn't store biomes, heightmaps or block entities.
+     */
+    private static final class CachedChunk {
+        private final int x;
+        private final int z;
+        private CompactSection[] sections;
+        /**
+         * The shared chunk these sections belong to, or null if they are only used by this session.
+         */
+        private SharedChunkStore.SharedChunk shared;
+        /**
+         * The distance to the player in chunks, only up to date while evicting.
+         */
+        private int distance;
+
+        private CachedChunk(int x, int z, CompactSection[] sections, SharedChunkStore.SharedChunk shared) {
+            this.x = x;
+            this.z = z;
+            this.sections = sections;
+            this.shared = shared;
+        }
+    }
 }
@@ -27,29 +27,44 @@ package org.geysermc.geyser.session.cache;
 
 import com.nukkitx.math.vector.Vector3f;
 import com.nukkitx.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import lombok.Data;
-import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.geysermc.geyser.entity.type.player.SkullPlayerEntity;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.util.MathUtils;
 
 import java.util.*;
 
 public class SkullCache {
+    private static final Comparator<Skull> BY_DISTANCE = Comparator.comparingInt(Skull::getDistanceSquared);
+
     private final int maxVisibleSkulls;
     private final boolean cullingEnabled;
     
     private final int skullRenderDistanceSquared;
+    /**
+     * How many chunks away from the player's chunk a skull within the render distance can be
+     */
+    private final int chunkRadius;
     
     /**
      * The time in milliseconds before unused skull entities are despawned
      */
     private static final long CLEANUP_PERIOD = 10000;
 
-    @Getter
     private final Map<Vector3i, Skull> skulls = new Object2ObjectOpenHashMap<>();
+    /**
+     * The same skulls as {@link #skulls}, grouped by chunk so only the chunks around the player have to be looked at.
+     */
+    private final Long2ObjectMap<List<Skull>> skullsByChunk = new Long2ObjectOpenHashMap<>();
 
+    /**
+     * All skulls in the chunks within {@link #chunkRadius} of the player, sorted by their distance to the player.
+     * Only the first skulls of this list within the render distance get an entity.
+     */
     private final List<Skull> inRangeSkulls = new ArrayList<>();
 
     private final Deque<SkullPlayerEntity> unusedSkullEntities = new ArrayDeque<>();
@@ -58,6 +73,8 @@ public class SkullCache {
     private final GeyserSession session;
 
     private Vector3f lastPlayerPosition;
+    private int centerChunkX;
+    private int centerChunkZ;
 
     private long lastCleanup = System.currentTimeMillis();
 
@@ -69,10 +86,23 @@ public class SkullCache {
         // Normal skulls are not rendered beyond 64 blocks
         int distance = Math.min(session.getGeyser().getConfig().getCustomSkullRenderDistance(), 64);
         this.skullRenderDistanceSquared = distance * distance;
+        this.chunkRadius = (Math.max(distance, 0) >> 4) + 1;
     }
 
     public void putSkull(Vector3i position, String texturesProperty, int blockState) {
-        Skull skull = skulls.computeIfAbsent(position, Skull::new);
+        Skull skull = skulls.get(position);
+        boolean newSkull = skull == null;
+        if (newSkull) {
+            skull = new Skull(position);
+            skulls.put(position, skull);
+            long chunkPosition = MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4);
+            List<Skull> chunkSkulls = skullsByChunk.get(chunkPosition);
+            if (chunkSkulls == null) {
+                chunkSkulls = new ArrayList<>();
+                skullsByChunk.put(chunkPosition, chunkSkulls);
+            }
+            chunkSkulls.add(skull);
+        }
         skull.texturesProperty = texturesProperty;
         skull.blockState = blockState;
 
@@ -83,25 +113,24 @@ public class SkullCache {
                 assignSkullEntity(skull);
                 return;
             }
-            if (lastPlayerPosition == null) {
+            if (!newSkull || !isInRange(position.getX() >> 4, position.getZ() >> 4)) {
+                // Either already in range without an entity, or too far away
                 return;
             }
-            skull.distanceSquared = position.distanceSquared(lastPlayerPosition.getX(), lastPlayerPosition.getY(), lastPlayerPosition.getZ());
-            if (skull.distanceSquared < skullRenderDistanceSquared) {
-                // Keep list in order
-                int i = Collections.binarySearch(inRangeSkulls, skull, Comparator.comparingInt(Skull::getDistanceSquared));
-                if (i < 0) { // skull.distanceSquared is a new distance value
-                    i = -i - 1;
-                }
-                inRangeSkulls.add(i, skull);
+            skull.distanceSquared = distanceSquared(skull);
+            // Keep list in order
+            int i = Collections.binarySearch(inRangeSkulls, skull, BY_DISTANCE);
+            if (i < 0) { // skull.distanceSquared is a new distance value
+                i = -i - 1;
+            }
+            inRangeSkulls.add(i, skull);
 
-                if (i < maxVisibleSkulls) {
-                    // Reassign entity from the farthest skull to this one
-                    if (inRangeSkulls.size() > maxVisibleSkulls) {
-                        freeSkullEntity(inRangeSkulls.get(maxVisibleSkulls));
-                    }
-                    assignSkullEntity(skull);
+            if (i < maxVisibleSkulls && isVisible(skull)) {
+                // Reassign entity from the farthest skull to this one
+                if (inRangeSkulls.size() > maxVisibleSkulls) {
+                    freeSkullEntity(inRangeSkulls.get(maxVisibleSkulls));
                 }
+                assignSkullEntity(skull);
             }
         }
     }
@@ -109,14 +138,60 @@ public class SkullCache {
     public void removeSkull(Vector3i position) {
         Skull skull = skulls.remove(position);
         if (skull != null) {
+            int chunkX = position.getX() >> 4;
+            int chunkZ = position.getZ() >> 4;
+            long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
+            List<Skull> chunkSkulls = skullsByChunk.get(chunkPosition);
+            if (chunkSkulls != null) {
+                chunkSkulls.remove(skull);
+                if (chunkSkulls.isEmpty()) {
+                    skullsByChunk.remove(chunkPosition);
+                }
+            }
+
             boolean hadEntity = skull.entity != null;
             freeSkullEntity(skull);
 
-            if (cullingEnabled) {
+            if (cullingEnabled && isInRange(chunkX, chunkZ)) {
                 inRangeSkulls.remove(skull);
                 if (hadEntity && inRangeSkulls.size() >= maxVisibleSkulls) {
                     // Reassign entity to the closest skull without an entity
-                    assignSkullEntity(inRangeSkulls.get(maxVisibleSkulls - 1));
+                    Skull next = inRangeSkulls.get(maxVisibleSkulls - 1);
+                    if (isVisible(next)) {
+                        assignSkullEntity(next);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all skulls of a chunk at once, for when the chunk is unloaded.
+     */
+    public void removeChunk(int chunkX, int chunkZ) {
+        List<Skull> chunkSkulls = skullsByChunk.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        if (chunkSkulls == null) {
+            return;
+        }
+
+        boolean hadEntity = false;
+        for (Skull skull : chunkSkulls) {
+            skulls.remove(skull.position);
+            hadEntity |= skull.entity != null;
+            freeSkullEntity(skull);
+        }
+
+        if (cullingEnabled && isInRange(chunkX, chunkZ)) {
+            inRangeSkulls.removeIf(skull -> (skull.position.getX() >> 4) == chunkX && (skull.position.getZ() >> 4) == chunkZ);
+            if (hadEntity) {
+                // Give the freed entities to the closest skulls without one
+                int count = Math.min(maxVisibleSkulls, inRangeSkulls.size());
+                for (int i = 0; i < count; i++) {
+                    Skull skull = inRangeSkulls.get(i);
+                    if (!isVisible(skull)) {
+                        break;
+                    }
+                    assignSkullEntity(skull);
                 }
             }
         }
@@ -124,28 +199,56 @@ public class SkullCache {
 
     public void updateVisibleSkulls() {
         if (cullingEnabled) {
+            Vector3f position = session.getPlayerEntity().getPosition();
             // No need to recheck skull visibility for small movements
-            if (lastPlayerPosition != null && session.getPlayerEntity().getPosition().distanceSquared(lastPlayerPosition) < 4) {
+            if (lastPlayerPosition != null && position.distanceSquared(lastPlayerPosition) < 4) {
                 return;
             }
-            lastPlayerPosition = session.getPlayerEntity().getPosition();
+            boolean hadPosition = lastPlayerPosition != null;
+            int oldChunkX = centerChunkX;
+            int oldChunkZ = centerChunkZ;
+            lastPlayerPosition = position;
+            centerChunkX = position.getFloorX() >> 4;
+            centerChunkZ = position.getFloorZ() >> 4;
 
-            inRangeSkulls.clear();
-            for (Skull skull : skulls.values()) {
-                skull.distanceSquared = skull.position.distanceSquared(lastPlayerPosition.getX(), lastPlayerPosition.getY(), lastPlayerPosition.getZ());
-                if (skull.distanceSquared > skullRenderDistanceSquared) {
-                    freeSkullEntity(skull);
+            // Drop skulls in chunks that left the range, and update the distance of the others
+            int size = inRangeSkulls.size();
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                Skull skull = inRangeSkulls.get(i);
+                if (isInRange(skull.position.getX() >> 4, skull.position.getZ() >> 4)) {
+                    skull.distanceSquared = distanceSquared(skull);
+                    inRangeSkulls.set(kept++, skull);
                 } else {
-                    inRangeSkulls.add(skull);
+                    freeSkullEntity(skull);
+                }
+            }
+            inRangeSkulls.subList(kept, size).clear();
+
+            // Add skulls in chunks that entered the range
+            for (int chunkX = centerChunkX - chunkRadius; chunkX <= centerChunkX + chunkRadius; chunkX++) {
+                for (int chunkZ = centerChunkZ - chunkRadius; chunkZ <= centerChunkZ + chunkRadius; chunkZ++) {
+                    if (hadPosition && Math.abs(chunkX - oldChunkX) <= chunkRadius && Math.abs(chunkZ - oldChunkZ) <= chunkRadius) {
+                        continue;
+                    }
+                    List<Skull> chunkSkulls = skullsByChunk.get(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+                    if (chunkSkulls != null) {
+                        for (Skull skull : chunkSkulls) {
+                            skull.distanceSquared = distanceSquared(skull);
+                            inRangeSkulls.add(skull);
+                        }
+                    }
                 }
             }
-            inRangeSkulls.sort(Comparator.comparingInt(Skull::getDistanceSquared));
+            // After a small movement the list is still almost in order, which this sort handles in close to linear time
+            inRangeSkulls.sort(BY_DISTANCE);
 
             for (int i = inRangeSkulls.size() - 1; i >= 0; i--) {
-                if (i < maxVisibleSkulls) {
-                    assignSkullEntity(inRangeSkulls.get(i));
+                Skull skull = inRangeSkulls.get(i);
+                if (i < maxVisibleSkulls && isVisible(skull)) {
+                    assignSkullEntity(skull);
                 } else {
-                    freeSkullEntity(inRangeSkulls.get(i));
+                    freeSkullEntity(skull);
                 }
             }
         }
@@ -162,6 +265,19 @@ public class SkullCache {
         }
     }
 
+    private boolean isInRange(int chunkX, int chunkZ) {
+        return lastPlayerPosition != null && Math.abs(chunkX - centerChunkX) <= chunkRadius
+                && Math.abs(chunkZ - centerChunkZ) <= chunkRadius;
+    }
+
+    private boolean isVisible(Skull skull) {
+        return skull.distanceSquared <= skullRenderDistanceSquared;
+    }
+
+    private int distanceSquared(Skull skull) {
+        return skull.position.distanceSquared(lastPlayerPosition.getX(), lastPlayerPosition.getY(), lastPlayerPosition.getZ());
+    }
+
     private void assignSkullEntity(Skull skull) {
         if (skull.entity != null) {
             return;
@@ -192,6 +308,7 @@ public class SkullCache {
 
     public void clear() {
         skulls.clear();
+        skullsByChunk.clear();
         inRangeSkulls.clear();
         unusedSkullEntities.clear();
         totalSkullEntities = 0;
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.math.vector.Vector3i;
+import com.nukkitx.nbt.NBTOutputStream;
+import com.nukkitx.nbt.NbtMap;
+import com.nukkitx.nbt.NbtUtils;
+import com.nukkitx.protocol.bedrock.data.HeightMapDataType;
+import com.nukkitx.protocol.bedrock.data.SubChunkData;
+import com.nukkitx.protocol.bedrock.data.SubChunkRequestResult;
+import com.nukkitx.protocol.bedrock.packet.BlockEntityDataPacket;
+import com.nukkitx.protocol.bedrock.packet.SubChunkPacket;
+import com.nukkitx.protocol.bedrock.packet.SubChunkRequestPacket;
+import com.nukkitx.protocol.bedrock.packet.UpdateBlockPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.Getter;
+import org.geysermc.geyser.level.BedrockDimension;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.util.ChunkUtils;
+import org.geysermc.geyser.util.DimensionUtils;
+import org.geysermc.geyser.util.MathUtils;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds translated chunk sections until the Bedrock client requests them. Only used if sub-chunk requests are enabled,
+ * in which case the level chunk packet only contains biomes and the client asks for the sections it needs, nearest first.
+ */
+public class SubChunkCache {
+    private final GeyserSession session;
+    @Getter
+    private final boolean enabled;
+
+    private final Long2ObjectMap<PendingSection[]> columns;
+
+    public SubChunkCache(GeyserSession session) {
+        this.session = session;
+        this.enabled = session.getGeyser().getConfig().isUseSubChunkRequests();
+        this.columns = enabled ? new Long2ObjectOpenHashMap<>() : null;
+    }
+
+    /**
+     * Stores a translated chunk column until the client requests its sections.
+     *
+     * @param sections the serialized sections, indexed from the bottom of the Bedrock dimension. Empty sections are null.
+     * @param blockEntities all Bedrock block entities in this chunk column
+     */
+    public void addColumn(int chunkX, int chunkZ, byte[][] sections, List<NbtMap> blockEntities) {
+        int minSectionY = session.getChunkCache().getBedrockDimension().minY() >> 4;
+
+        PendingSection[] column = new PendingSection[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            column[i] = new PendingSection(sections[i]);
+        }
+        for (NbtMap blockEntity : blockEntities) {
+            int sectionY = (blockEntity.getInt("y") >> 4) - minSectionY;
+            if (sectionY >= 0 && sectionY < column.length) {
+                column[sectionY].blockEntities.add(blockEntity);
+            }
+        }
+
+        columns.put(MathUtils.chunkPositionToLong(chunkX, chunkZ), column);
+    }
+
+    public void removeColumn(int chunkX, int chunkZ) {
+        if (!enabled) {
+            return;
+        }
+
+        columns.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+    }
+
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+
+        columns.clear();
+    }
+
+    /**
+     * Remembers a block update so it is not lost if the client has not requested the section it is in yet.
+     *
+     * @return true if the section has not been sent yet, and the packet should not be sent now
+     */
+    public boolean trackUpdate(UpdateBlockPacket packet) {
+        PendingSection section = getSection(packet.getBlockPosition());
+        if (section == null) {
+            return false;
+        }
+
+        if (packet.getDataLayer() == 0) {
+            section.blockUpdates.put(packet.getBlockPosition(), packet);
+        } else {
+            section.waterUpdates.put(packet.getBlockPosition(), packet);
+        }
+        return !section.sent;
+    }
+
+    /**
+     * @see #trackUpdate(UpdateBlockPacket)
+     */
+    public boolean trackUpdate(BlockEntityDataPacket packet) {
+        PendingSection section = getSection(packet.getBlockPosition());
+        if (section == null) {
+            return false;
+        }
+
+        section.blockEntityUpdates.put(packet.getBlockPosition(), packet);
+        return !section.sent;
+    }
+
+    /**
+     * @return true if this section is waiting to be requested by the client
+     */
+    public boolean isWaiting(int chunkX, int chunkY, int chunkZ) {
+        PendingSection section = getSection(chunkX, chunkY, chunkZ);
+        return section != null && !section.sent;
+    }
+
+    /**
+     * Replaces a section that has not been sent yet with a newer translation of it. Block changes recorded so far are
+     * part of the new translation and are dropped.
+     *
+     * @param data the serialized section, or null if it is empty
+     */
+    public void replaceSection(int chunkX, int chunkY, int chunkZ, byte[] data) {
+        PendingSection section = getSection(chunkX, chunkY, chunkZ);
+        if (section == null || section.sent) {
+            return;
+        }
+
+        section.data = data;
+        section.blockUpdates.clear();
+        section.waterUpdates.clear();
+    }
+
+    private PendingSection getSection(Vector3i position) {
+        return getSection(position.getX() >> 4, position.getY() >> 4, position.getZ() >> 4);
+    }
+
+    private PendingSection getSection(int chunkX, int chunkY, int chunkZ) {
+        if (!enabled) {
+            return null;
+        }
+
+        PendingSection[] column = columns.get(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        if (column == null) {
+            return null;
+        }
+
+        int sectionY = chunkY - (session.getChunkCache().getBedrockDimension().minY() >> 4);
+        if (sectionY < 0 || sectionY >= column.length) {
+            return null;
+        }
+        return column[sectionY];
+    }
+
+    public void handleRequest(SubChunkRequestPacket packet) {
+        Vector3i center = packet.getSubChunkPosition();
+        BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
+        int minSectionY = bedrockDimension.minY() >> 4;
+        boolean validDimension = packet.getDimension() == DimensionUtils.javaToBedrock(bedrockDimension);
+
+        // Answer the sections closest to the player first
+        Vector3f position = session.getPlayerEntity().getPosition();
+        Vector3i playerSection = Vector3i.from(position.getFloorX() >> 4, position.getFloorY() >> 4, position.getFloorZ() >> 4);
+        List<Vector3i> offsets = new ObjectArrayList<>(packet.getPositionOffsets());
+        offsets.sort(Comparator.comparingInt(offset -> (int) center.add(offset).distanceSquared(playerSection)));
+
+        List<SubChunkData> subChunks = new ObjectArrayList<>(offsets.size());
+        List<PendingSection> sentSections = new ObjectArrayList<>(offsets.size());
+        for (Vector3i offset : offsets) {
+            SubChunkData subChunk = new SubChunkData();
+            subChunk.setPosition(offset);
+            subChunk.setHeightMapType(HeightMapDataType.NO_DATA);
+            subChunks.add(subChunk);
+
+            if (!validDimension) {
+                subChunk.setResult(SubChunkRequestResult.INVALID_DIMENSION);
+                continue;
+            }
+
+            Vector3i sectionPosition = center.add(offset);
+            PendingSection[] column = columns.get(MathUtils.chunkPositionToLong(sectionPosition.getX(), sectionPosition.getZ()));
+            if (column == null) {
+                subChunk.setResult(SubChunkRequestResult.CHUNK_NOT_FOUND);
+                continue;
+            }
+
+            int sectionY = sectionPosition.getY() - minSectionY;
+            if (sectionY < 0 || sectionY >= column.length) {
+                subChunk.setResult(SubChunkRequestResult.INDEX_OUT_OF_BOUNDS);
+                continue;
+            }
+
+            PendingSection section = column[sectionY];
+            if (section.data == null && section.blockEntities.isEmpty()) {
+                subChunk.setResult(SubChunkRequestResult.SUCCESS_ALL_AIR);
+                subChunk.setData(new byte[0]);
+            } else {
+                subChunk.setResult(SubChunkRequestResult.SUCCESS);
+                subChunk.setData(section.serialize());
+            }
+            sentSections.add(section);
+        }
+
+        SubChunkPacket subChunkPacket = new SubChunkPacket();
+        subChunkPacket.setDimension(packet.getDimension());
+        subChunkPacket.setCenterPosition(center);
+        subChunkPacket.setSubChunks(subChunks);
+        subChunkPacket.setCacheEnabled(false);
+        session.sendUpstreamPacket(subChunkPacket);
+
+        // Any block changes that happened before the client received these sections can be sent now
+        for (PendingSection section : sentSections) {
+            section.sent = true;
+            section.blockUpdates.values().forEach(session::sendUpstreamPacket);
+            section.waterUpdates.values().forEach(session::sendUpstreamPacket);
+            section.blockEntityUpdates.values().forEach(session::sendUpstreamPacket);
+        }
+    }
+
+    private final class PendingSection {
+        private byte[] data;
+        private final List<NbtMap> blockEntities = new ObjectArrayList<>(0);
+        /**
+         * Every block change in this section since it was translated, so they can be replayed if the client requests
+         * this section again. Only the latest change of each position is kept.
+         */
+        private final Map<Vector3i, UpdateBlockPacket> blockUpdates = new Object2ObjectLinkedOpenHashMap<>(0);
+        private final Map<Vector3i, UpdateBlockPacket> waterUpdates = new Object2ObjectLinkedOpenHashMap<>(0);
+        private final Map<Vector3i, BlockEntityDataPacket> blockEntityUpdates = new Object2ObjectLinkedOpenHashMap<>(0);
+        private boolean sent = false;
+
+        private PendingSection(byte[] data) {
+            this.data = data;
+        }
+
+        private byte[] serialize() {
+            byte[] sectionData = data == null ? ChunkUtils.SERIALIZED_CHUNK_DATA : data;
+            if (blockEntities.isEmpty()) {
+                return sectionData;
+            }
+
+            // Block entities are sent along with the section they are in
+            ByteBuf byteBuf = ByteBufAllocator.DEFAULT.buffer(sectionData.length + blockEntities.size() * 64);
+            try {
+                byteBuf.writeBytes(sectionData);
+                NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
+                for (NbtMap blockEntity : blockEntities) {
+                    nbtStream.writeTag(blockEntity);
+                }
+
+                byte[] serialized = new byte[byteBuf.readableBytes()];
+                byteBuf.readBytes(serialized);
+                return serialized;
+            } catch (IOException e) {
+                session.getGeyser().getLogger().error("IO error while encoding sub-chunk", e);
+                return sectionData;
+            } finally {
+                byteBuf.release();
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@
 
 package org.geysermc.geyser.session.cache;
 
+import com.github.steveice10.mc.protocol.data.game.level.block.BlockChangeEntry;
 import com.github.steveice10.mc.protocol.data.game.setting.Difficulty;
 import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.packet.SetTitlePacket;
@@ -34,7 +35,7 @@ import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.Getter;
 import lombok.Setter;
 import org.geysermc.geyser.scoreboard.Scoreboard;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater.ScoreboardSession;
+import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.ChunkUtils;
 
@@ -42,8 +43,7 @@ import java.util.Iterator;
 
 public final class WorldCache {
     private final GeyserSession session;
-    @Getter
-    private final ScoreboardSession scoreboardSession;
+    private final ScoreboardUpdater scoreboardUpdater;
     @Getter
     private Scoreboard scoreboard;
     @Getter
@@ -64,7 +64,7 @@ public final class WorldCache {
     public WorldCache(GeyserSession session) {
         this.session = session;
         this.scoreboard = new Scoreboard(session);
-        scoreboardSession = new ScoreboardSession(session);
+        scoreboardUpdater = new ScoreboardUpdater(session);
         resetTitleTimes(false);
     }
 
@@ -75,10 +75,11 @@ public final class WorldCache {
         }
     }
 
-    public int increaseAndGetScoreboardPacketsPerSecond() {
-        int pendingPps = scoreboardSession.getPendingPacketsPerSecond().incrementAndGet();
-        int pps = scoreboardSession.getPacketsPerSecond();
-        return Math.max(pps, pendingPps);
+    /**
+     * Sends the scoreboard changes to the client, now or once the scoreboard packet rate allows it.
+     */
+    public void scheduleScoreboardUpdate() {
+        scoreboardUpdater.update();
     }
 
     public void markTitleTimesAsIncorrect() {
@@ -164,6 +165,21 @@ public final class WorldCache {
         ChunkUtils.updateBlock(session, blockState, position);
     }
 
+    /**
+     * Updates all changed blocks of one section at once.
+     *
+     * @see #updateServerCorrectBlockState(Vector3i, int)
+     */
+    public void updateServerCorrectBlockStates(int chunkX, int chunkY, int chunkZ, BlockChangeEntry[] entries) {
+        if (!this.unverifiedPredictions.isEmpty()) {
+            for (BlockChangeEntry entry : entries) {
+                this.unverifiedPredictions.removeInt(entry.getPosition());
+            }
+        }
+
+        ChunkUtils.updateSection(session, chunkX, chunkY, chunkZ, entries);
+    }
+
     public void endPredictionsUpTo(int sequence) {
         if (this.unverifiedPredictions.isEmpty()) {
             return;
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.skin;
+
+import com.nukkitx.protocol.bedrock.packet.PlayerListPacket;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import org.geysermc.geyser.entity.type.player.PlayerEntity;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the skins of player list entries a few at a time, after the entries themselves have been sent without skins.
+ * This keeps a player joining a large network from receiving the skins of everyone at once. Players that are spawned
+ * near the client get their skin right away through {@link SkinManager#requestAndHandleSkinAndCape}, so they are
+ * taken out of the queue. Everything runs on the session's event loop.
+ */
+public final class PlayerListSkinQueue {
+    /**
+     * The shortest time between two batches. Lower rates send one skin per batch and wait longer instead.
+     */
+    private static final int MIN_MILLIS_BETWEEN_BATCHES = 250;
+
+    private final GeyserSession session;
+    private final boolean enabled;
+    private final int millisBetweenBatches;
+    private final int skinsPerBatch;
+
+    /**
+     * In the order the entries were sent.
+     */
+    private final Map<UUID, PlayerEntity> pending = new Object2ObjectLinkedOpenHashMap<>();
+    private ScheduledFuture<?> scheduledBatch;
+
+    public PlayerListSkinQueue(GeyserSession session, int skinsPerSecond) {
+        this.session = session;
+        this.enabled = skinsPerSecond > 0;
+        this.millisBetweenBatches = enabled ? Math.max(MIN_MILLIS_BETWEEN_BATCHES, 1000 / skinsPerSecond) : MIN_MILLIS_BETWEEN_BATCHES;
+        this.skinsPerBatch = Math.max(1, skinsPerSecond * millisBetweenBatches / 1000);
+    }
+
+    /**
+     * @return if player list entries should be sent without skins, and their skins added to this queue
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void add(PlayerEntity entity) {
+        pending.put(entity.getUuid(), entity);
+        scheduleBatch();
+    }
+
+    /**
+     * Called when the skin of this player has been sent some other way, or is not needed anymore.
+     */
+    public void remove(UUID uuid) {
+        pending.remove(uuid);
+    }
+
+    private void scheduleBatch() {
+        if (scheduledBatch == null && !pending.isEmpty()) {
+            scheduledBatch = session.scheduleInEventLoop(this::sendBatch, millisBetweenBatches, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sendBatch() {
+        scheduledBatch = null;
+        if (session.isClosed()) {
+            pending.clear();
+            return;
+        }
+
+        PlayerListPacket packet = new PlayerListPacket();
+        packet.setAction(PlayerListPacket.Action.ADD);
+        Iterator<PlayerEntity> iterator = pending.values().iterator();
+        while (iterator.hasNext() && packet.getEntries().size() < skinsPerBatch) {
+            PlayerEntity entity = iterator.next();
+            iterator.remove();
+            if (entity.isPlayerList()) {
+                packet.getEntries().add(SkinManager.buildCachedEntry(session, entity));
+            }
+        }
+
+        if (!packet.getEntries().isEmpty()) {
+            session.sendUpstreamPacket(packet);
+        }
+        scheduleBatch();
+    }
+}
@@ -29,6 +29,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
 import com.github.steveice10.opennbt.tag.builtin.ListTag;
 import com.github.steveice10.opennbt.tag.builtin.StringTag;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.nukkitx.protocol.bedrock.data.skin.ImageData;
 import com.nukkitx.protocol.bedrock.data.skin.SerializedSkin;
 import com.nukkitx.protocol.bedrock.packet.PlayerListPacket;
@@ -45,9 +47,33 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class SkinManager {
+    /**
+     * Skins built for the player list, shared between all sessions so a skin is built only once no matter how many
+     * players see it.
+     */
+    private static final Cache<SerializedSkinKey, SerializedSkin> SERIALIZED_SKINS = CacheBuilder.newBuilder()
+            .maximumSize(512)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * Sent in place of a skin until the real one follows, see {@link PlayerListSkinQueue}.
+     */
+    private static final SerializedSkin PLACEHOLDER_SKIN;
+
+    static {
+        SkinProvider.SkinGeometry geometry = SkinProvider.SkinGeometry.getLegacy(false);
+        PLACEHOLDER_SKIN = SerializedSkin.of(
+                "placeholder", "", geometry.getGeometryName(), ImageData.EMPTY, Collections.emptyList(),
+                ImageData.EMPTY, geometry.getGeometryData(), "", true, false, false,
+                SkinProvider.EMPTY_CAPE.getCapeId(), "placeholder"
+        );
+    }
 
     /**
      * Builds a Bedrock player list entry from our existing, cached Bedrock skin information
@@ -75,6 +101,13 @@ public class SkinManager {
         );
     }
 
+    /**
+     * Builds a Bedrock player list entry without skin data, for when the skin is sent later on.
+     */
+    public static PlayerListPacket.Entry buildPlaceholderEntry(GeyserSession session, PlayerEntity playerEntity) {
+        return buildEntry(session, playerEntity.getUuid(), playerEntity.getUsername(), playerEntity.getGeyserId(), PLACEHOLDER_SKIN);
+    }
+
     /**
      * With all the information needed, build a Bedrock player entry with translated skin information.
      */
@@ -82,12 +115,22 @@ public class SkinManager {
                                                             String skinId, byte[] skinData,
                                                             String capeId, byte[] capeData,
                                                             SkinProvider.SkinGeometry geometry) {
-        SerializedSkin serializedSkin = SerializedSkin.of(
-                skinId, "", geometry.getGeometryName(), ImageData.of(skinData), Collections.emptyList(),
-                ImageData.of(capeData), geometry.getGeometryData(), "", true, false,
-                !capeId.equals(SkinProvider.EMPTY_CAPE.getCapeId()), capeId, skinId
-        );
+        SerializedSkinKey key = new SerializedSkinKey(skinId, capeId, geometry.getGeometryName());
+        SerializedSkin serializedSkin;
+        try {
+            serializedSkin = SERIALIZED_SKINS.get(key, () -> SerializedSkin.of(
+                    skinId, "", geometry.getGeometryName(), ImageData.of(skinData), Collections.emptyList(),
+                    ImageData.of(capeData), geometry.getGeometryData(), "", true, false,
+                    !capeId.equals(SkinProvider.EMPTY_CAPE.getCapeId()), capeId, skinId
+            ));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return buildEntry(session, uuid, username, geyserId, serializedSkin);
+    }
 
+    private static PlayerListPacket.Entry buildEntry(GeyserSession session, UUID uuid, String username, long geyserId,
+                                                     SerializedSkin serializedSkin) {
         // This attempts to find the XUID of the player so profile images show up for Xbox accounts
         String xuid = "";
         GeyserSession playerSession = GeyserImpl.getInstance().connectionByUuid(uuid);
@@ -193,6 +236,12 @@ public class SkinManager {
         }
     }
 
+    /**
+     * Skin and cape IDs are derived from their texture, so the same IDs always mean the same images.
+     */
+    private record SerializedSkinKey(String skinId, String capeId, String geometryName) {
+    }
+
     public record GameProfileData(String skinUrl, String capeUrl, boolean isAlex) {
         /**
          * Generate the GameProfileData from the given CompoundTag representing a GameProfile
@@ -38,4 +38,12 @@ public abstract class PacketTranslator<T> {
     public boolean shouldExecuteInEventLoop() {
         return true;
     }
+
+    /**
+     * Determines if this packet should wait until all chunks received before it have been translated. Only applies to
+     * Java packets that are handled in the event loop, and only if chunks are translated on a separate thread pool.
+     */
+    public boolean shouldWaitForChunks() {
+        return true;
+    }
 }
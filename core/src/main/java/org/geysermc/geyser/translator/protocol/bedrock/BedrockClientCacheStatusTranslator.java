@@ -23,16 +23,21 @@
  * @link https://github.com/GeyserMC/Geyser
  */
 
-package org.geysermc.geyser.level.chunk;
+package org.geysermc.geyser.translator.protocol.bedrock;
 
-import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.nukkitx.protocol.bedrock.packet.ClientCacheStatusPacket;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.protocol.PacketTranslator;
+import org.geysermc.geyser.translator.protocol.Translator;
 
 /**
- * Acts as a lightweight chunk class that doesn't store biomes, heightmaps or block entities.
+ * Sent by the client after logging in to tell us if it supports the blob cache.
  */
-public record GeyserChunk(DataPalette[] sections) {
+@Translator(packet = ClientCacheStatusPacket.class)
+public class BedrockClientCacheStatusTranslator extends PacketTranslator<ClientCacheStatusPacket> {
 
-    public static GeyserChunk from(DataPalette[] sections) {
-        return new GeyserChunk(sections);
+    @Override
+    public void translate(GeyserSession session, ClientCacheStatusPacket packet) {
+        session.getBlobCache().setSupported(packet.isSupported());
     }
 }
@@ -30,6 +30,8 @@ import com.github.steveice10.mc.protocol.data.game.command.CommandParser;
 import com.github.steveice10.mc.protocol.data.game.command.properties.ResourceProperties;
 import com.github.steveice10.mc.protocol.data.game.entity.attribute.AttributeType;
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.ClientboundCommandsPacket;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.nukkitx.protocol.bedrock.data.command.CommandData;
 import com.nukkitx.protocol.bedrock.data.command.CommandEnumData;
 import com.nukkitx.protocol.bedrock.data.command.CommandParam;
@@ -57,6 +59,7 @@ import org.geysermc.geyser.translator.protocol.Translator;
 import org.geysermc.geyser.util.EntityUtils;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Translator(packet = ClientboundCommandsPacket.class)
 public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommandsPacket> {
@@ -67,6 +70,14 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
     private static final String[] VALID_COLORS;
     private static final String[] VALID_SCOREBOARD_SLOTS;
 
+    /**
+     * Translated command trees, shared between all sessions.
+     */
+    private static final Cache<CommandTreeKey, Map<BedrockCommandInfo, CommandData>> TRANSLATED_TREES = CacheBuilder.newBuilder()
+            .maximumSize(16)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
     private static final Hash.Strategy<BedrockCommandInfo> PARAM_STRATEGY = new Hash.Strategy<>() {
         @Override
         public int hashCode(BedrockCommandInfo o) {
@@ -117,9 +128,47 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
             return;
         }
 
+        // Players on the same server usually get the exact same tree, so only translate it once
+        CommandTreeKey key = new CommandTreeKey(packet.getNodes(), packet.getFirstNodeIndex(),
+                session.getUpstream().getProtocolVersion(), session.getLevels());
+        Map<BedrockCommandInfo, CommandData> translated = TRANSLATED_TREES.getIfPresent(key);
+        if (translated == null) {
+            translated = translateTree(session, packet);
+            TRANSLATED_TREES.put(key, translated);
+        }
+
+        // Copy the commands, since the event can remove some of them for this player only
+        Set<BedrockCommandInfo> commands = new LinkedHashSet<>(translated.keySet());
+        ServerDefineCommandsEvent event = new ServerDefineCommandsEvent(session, commands);
+        session.getGeyser().eventBus().fire(event);
+        if (event.isCancelled()) {
+            return;
+        }
+
+        List<CommandData> commandData = new ArrayList<>(commands.size());
+        for (BedrockCommandInfo info : commands) {
+            commandData.add(translated.get(info));
+        }
+
+        // Add our commands to the AvailableCommandsPacket for the bedrock client
+        AvailableCommandsPacket availableCommandsPacket = new AvailableCommandsPacket();
+        availableCommandsPacket.getCommands().addAll(commandData);
+
+        session.getGeyser().getLogger().debug("Sending command packet of " + commandData.size() + " commands");
+
+        // Finally, send the commands to the client
+        session.sendUpstreamPacket(availableCommandsPacket);
+    }
+
+    /**
+     * Translates every command of the tree. The result does not depend on the session other than through the
+     * values in {@link CommandTreeKey}, and is shared between sessions.
+     *
+     * @return the translated command of each command info, in the order they should be sent
+     */
+    private static Map<BedrockCommandInfo, CommandData> translateTree(GeyserSession session, ClientboundCommandsPacket packet) {
         GeyserCommandManager manager = session.getGeyser().commandManager();
         CommandNode[] nodes = packet.getNodes();
-        List<CommandData> commandData = new ArrayList<>();
         IntSet commandNodes = new IntOpenHashSet();
         Set<String> knownAliases = new HashSet<>();
         Map<BedrockCommandInfo, Set<String>> commands = new Object2ObjectOpenCustomHashMap<>(PARAM_STRATEGY);
@@ -150,14 +199,9 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
                     index -> new HashSet<>()).add(node.getName().toLowerCase());
         }
 
-        ServerDefineCommandsEvent event = new ServerDefineCommandsEvent(session, commands.keySet());
-        session.getGeyser().eventBus().fire(event);
-        if (event.isCancelled()) {
-            return;
-        }
-
         // The command flags, not sure what these do apart from break things
         List<CommandData.Flag> flags = Collections.emptyList();
+        Map<BedrockCommandInfo, CommandData> commandData = new LinkedHashMap<>();
 
         // Loop through all the found commands
         for (Map.Entry<BedrockCommandInfo, Set<String>> entry : commands.entrySet()) {
@@ -168,17 +212,9 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
 
             // Build the completed command and add it to the final list
             CommandData data = new CommandData(commandName, entry.getKey().description(), flags, (byte) 0, aliases, entry.getKey().paramData());
-            commandData.add(data);
+            commandData.put(entry.getKey(), data);
         }
-
-        // Add our commands to the AvailableCommandsPacket for the bedrock client
-        AvailableCommandsPacket availableCommandsPacket = new AvailableCommandsPacket();
-        availableCommandsPacket.getCommands().addAll(commandData);
-
-        session.getGeyser().getLogger().debug("Sending command packet of " + commandData.size() + " commands");
-
-        // Finally, send the commands to the client
-        session.sendUpstreamPacket(availableCommandsPacket);
+        return Collections.unmodifiableMap(commandData);
     }
 
     /**
@@ -261,6 +297,66 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
     private record BedrockCommandInfo(String name, String description, CommandParamData[][] paramData) implements ServerDefineCommandsEvent.CommandInfo {
     }
 
+    /**
+     * Compares command trees by their structure instead of by identity, together with everything else from the session
+     * that changes how the tree is translated.
+     */
+    private static final class CommandTreeKey {
+        private final CommandNode[] nodes;
+        private final int firstNodeIndex;
+        private final int protocolVersion;
+        private final String[] levels;
+        private final int hashCode;
+
+        CommandTreeKey(CommandNode[] nodes, int firstNodeIndex, int protocolVersion, String[] levels) {
+            this.nodes = nodes;
+            this.firstNodeIndex = firstNodeIndex;
+            this.protocolVersion = protocolVersion;
+            this.levels = levels;
+
+            int hash = 31 * firstNodeIndex + protocolVersion;
+            hash = 31 * hash + Arrays.hashCode(levels);
+            for (CommandNode node : nodes) {
+                hash = 31 * hash + Objects.hash(node.getType(), node.isExecutable(), node.getRedirectIndex(), node.getName(),
+                        node.getParser(), node.getSuggestionType(), translatedProperties(node));
+                hash = 31 * hash + Arrays.hashCode(node.getChildIndices());
+            }
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CommandTreeKey other)) return false;
+            if (hashCode != other.hashCode || firstNodeIndex != other.firstNodeIndex || protocolVersion != other.protocolVersion) return false;
+            if (!Arrays.equals(levels, other.levels) || nodes.length != other.nodes.length) return false;
+            for (int i = 0; i < nodes.length; i++) {
+                CommandNode a = nodes[i];
+                CommandNode b = other.nodes[i];
+                if (a.getType() != b.getType() || a.isExecutable() != b.isExecutable() || a.getRedirectIndex() != b.getRedirectIndex()
+                        || a.getParser() != b.getParser() || a.getSuggestionType() != b.getSuggestionType()
+                        || !Objects.equals(a.getName(), b.getName()) || !Arrays.equals(a.getChildIndices(), b.getChildIndices())
+                        || !Objects.equals(translatedProperties(a), translatedProperties(b))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /**
+         * Not every properties class implements equals, so only the part of the properties that the translation
+         * reads is compared.
+         */
+        private static String translatedProperties(CommandNode node) {
+            return node.getProperties() instanceof ResourceProperties properties ? properties.getRegistryKey() : null;
+        }
+    }
+
     /**
      * Stores command completions so we don't have to rebuild the same values multiple times.
      */
@@ -34,11 +34,17 @@ import com.github.steveice10.mc.protocol.data.game.recipe.data.ShapelessRecipeDa
 import com.github.steveice10.mc.protocol.data.game.recipe.data.SmithingRecipeData;
 import com.github.steveice10.mc.protocol.data.game.recipe.data.StoneCuttingRecipeData;
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.ClientboundUpdateRecipesPacket;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.nukkitx.protocol.bedrock.data.inventory.CraftingData;
 import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
 import com.nukkitx.protocol.bedrock.data.inventory.descriptor.DefaultDescriptor;
 import com.nukkitx.protocol.bedrock.data.inventory.descriptor.ItemDescriptorWithCount;
 import com.nukkitx.protocol.bedrock.packet.CraftingDataPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.*;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -53,8 +59,12 @@ import org.geysermc.geyser.translator.inventory.item.ItemTranslator;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 import org.geysermc.geyser.translator.protocol.Translator;
 import org.geysermc.geyser.util.InventoryUtils;
+import org.geysermc.geyser.util.collection.Int2ObjectOverlayMap;
+
+import javax.annotation.Nullable;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.geysermc.geyser.util.InventoryUtils.LAST_RECIPE_NET_ID;
@@ -76,16 +86,59 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
             CraftingData.fromMulti(UUID.fromString("602234e4-cac1-4353-8bb7-b1ebff70024b"), ++LAST_RECIPE_NET_ID) // Map locking
     );
 
+    /**
+     * Translated recipes, shared between all sessions that receive the same recipes.
+     */
+    private static final Cache<RecipesKey, TranslatedRecipes> TRANSLATED_RECIPES = CacheBuilder.newBuilder()
+            .maximumSize(8)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
     @Override
     public void translate(GeyserSession session, ClientboundUpdateRecipesPacket packet) {
+        TranslatedRecipes recipes;
+        HashCode contentHash = hashContents(session, packet);
+        if (contentHash == null) {
+            recipes = translateRecipes(session, packet);
+        } else {
+            RecipesKey key = new RecipesKey(contentHash, session.getUpstream().getProtocolVersion());
+            recipes = TRANSLATED_RECIPES.getIfPresent(key);
+            if (recipes == null) {
+                recipes = translateRecipes(session, packet);
+                TRANSLATED_RECIPES.put(key, recipes);
+            }
+        }
+
+        CraftingDataPacket craftingDataPacket = new CraftingDataPacket();
+        craftingDataPacket.setCleanRecipes(true);
+        List<CraftingData> craftingData = craftingDataPacket.getCraftingData();
+        craftingData.addAll(recipes.craftingData());
+        // Outputs that keep their NBT can have localized names or tooltips
+        for (LocalizedRecipe recipe : recipes.localizedRecipes()) {
+            craftingData.set(recipe.index(), recipe.translate(session));
+        }
+        craftingDataPacket.getPotionMixData().addAll(Registries.POTION_MIXES.get());
+
+        session.sendUpstreamPacket(craftingDataPacket);
+        // Recipes can be added to this session later on, so don't change the shared map
+        session.setCraftingRecipes(new Int2ObjectOverlayMap<>(recipes.recipes()));
+        session.setStonecutterRecipes(recipes.stonecutterRecipes());
+        session.getLastRecipeNetId().set(recipes.lastNetId());
+    }
+
+    /**
+     * Translates recipes without anything specific to this session's language or settings, so they can be shared with
+     * other sessions on the same protocol version.
+     */
+    private TranslatedRecipes translateRecipes(GeyserSession session, ClientboundUpdateRecipesPacket packet) {
         Map<RecipeType, List<CraftingData>> recipeTypes = Registries.CRAFTING_DATA.forVersion(session.getUpstream().getProtocolVersion());
         // Get the last known network ID (first used for the pregenerated recipes) and increment from there.
         int netId = InventoryUtils.LAST_RECIPE_NET_ID + 1;
 
         Int2ObjectMap<GeyserRecipe> recipeMap = new Int2ObjectOpenHashMap<>(Registries.RECIPES.forVersion(session.getUpstream().getProtocolVersion()));
         Int2ObjectMap<List<StoneCuttingRecipeData>> unsortedStonecutterData = new Int2ObjectOpenHashMap<>();
-        CraftingDataPacket craftingDataPacket = new CraftingDataPacket();
-        craftingDataPacket.setCleanRecipes(true);
+        List<CraftingData> craftingData = new ArrayList<>();
+        List<LocalizedRecipe> localizedRecipes = new ArrayList<>();
         for (Recipe recipe : packet.getRecipes()) {
             switch (recipe.getType()) {
                 case CRAFTING_SHAPELESS -> {
@@ -100,7 +153,7 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
                     ItemDescriptorWithCount[][] inputCombinations = combinations(session, shapelessRecipeData.getIngredients());
                     for (ItemDescriptorWithCount[] inputs : inputCombinations) {
                         UUID uuid = UUID.randomUUID();
-                        craftingDataPacket.getCraftingData().add(CraftingData.fromShapeless(uuid.toString(),
+                        craftingData.add(CraftingData.fromShapeless(uuid.toString(),
                                 Arrays.asList(inputs), Collections.singletonList(output), uuid, "crafting_table", 0, netId));
                         recipeMap.put(netId++, new GeyserShapelessRecipe(shapelessRecipeData));
                     }
@@ -117,7 +170,7 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
                     ItemDescriptorWithCount[][] inputCombinations = combinations(session, shapedRecipeData.getIngredients());
                     for (ItemDescriptorWithCount[] inputs : inputCombinations) {
                         UUID uuid = UUID.randomUUID();
-                        craftingDataPacket.getCraftingData().add(CraftingData.fromShaped(uuid.toString(),
+                        craftingData.add(CraftingData.fromShaped(uuid.toString(),
                                 shapedRecipeData.getWidth(), shapedRecipeData.getHeight(), Arrays.asList(inputs),
                                 Collections.singletonList(output), uuid, "crafting_table", 0, netId));
                         recipeMap.put(netId++, new GeyserShapedRecipe(shapedRecipeData));
@@ -137,30 +190,28 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
                 case SMITHING -> {
                     // Required to translate these as of 1.18.10, or else they cannot be crafted
                     SmithingRecipeData recipeData = (SmithingRecipeData) recipe.getData();
-                    ItemData output = ItemTranslator.translateToBedrock(session, recipeData.getResult());
                     for (ItemStack base : recipeData.getBase().getOptions()) {
                         ItemDescriptorWithCount bedrockBase = ItemDescriptorWithCount.fromItem(ItemTranslator.translateToBedrock(session, base));
 
                         for (ItemStack addition : recipeData.getAddition().getOptions()) {
                             ItemDescriptorWithCount bedrockAddition = ItemDescriptorWithCount.fromItem(ItemTranslator.translateToBedrock(session, addition));
 
-                            UUID uuid = UUID.randomUUID();
-                            craftingDataPacket.getCraftingData().add(CraftingData.fromShapeless(uuid.toString(),
-                                    List.of(bedrockBase, bedrockAddition),
-                                    Collections.singletonList(output), uuid, "smithing_table", 2, netId++));
+                            LocalizedRecipe localizedRecipe = new LocalizedRecipe(craftingData.size(), List.of(bedrockBase, bedrockAddition),
+                                    UUID.randomUUID(), "smithing_table", 2, netId++, recipeData.getResult());
+                            craftingData.add(localizedRecipe.translate(session));
+                            localizedRecipes.add(localizedRecipe);
                         }
                     }
                 }
                 default -> {
-                    List<CraftingData> craftingData = recipeTypes.get(recipe.getType());
-                    if (craftingData != null) {
-                        craftingDataPacket.getCraftingData().addAll(craftingData);
+                    List<CraftingData> defaultCraftingData = recipeTypes.get(recipe.getType());
+                    if (defaultCraftingData != null) {
+                        craftingData.addAll(defaultCraftingData);
                     }
                 }
             }
         }
-        craftingDataPacket.getCraftingData().addAll(CARTOGRAPHY_RECIPES);
-        craftingDataPacket.getPotionMixData().addAll(Registries.POTION_MIXES.get());
+        craftingData.addAll(CARTOGRAPHY_RECIPES);
 
         Int2ObjectMap<GeyserStonecutterData> stonecutterRecipeMap = new Int2ObjectOpenHashMap<>();
         for (Int2ObjectMap.Entry<List<StoneCuttingRecipeData>> data : unsortedStonecutterData.int2ObjectEntrySet()) {
@@ -183,11 +234,12 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
                     // Probably modded items
                     continue;
                 }
-                UUID uuid = UUID.randomUUID();
 
                 // We need to register stonecutting recipes so they show up on Bedrock
-                craftingDataPacket.getCraftingData().add(CraftingData.fromShapeless(uuid.toString(),
-                        Collections.singletonList(descriptor), Collections.singletonList(output), uuid, "stonecutter", 0, netId));
+                LocalizedRecipe localizedRecipe = new LocalizedRecipe(craftingData.size(), Collections.singletonList(descriptor),
+                        UUID.randomUUID(), "stonecutter", 0, netId, javaOutput);
+                craftingData.add(localizedRecipe.translate(session));
+                localizedRecipes.add(localizedRecipe);
 
                 // Save the recipe list for reference when crafting
                 // Add the net ID as the key and the button required + output for the value
@@ -195,10 +247,25 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
             }
         }
 
-        session.sendUpstreamPacket(craftingDataPacket);
-        session.setCraftingRecipes(recipeMap);
-        session.setStonecutterRecipes(stonecutterRecipeMap);
-        session.getLastRecipeNetId().set(netId);
+        return new TranslatedRecipes(List.copyOf(craftingData), List.copyOf(localizedRecipes),
+                Int2ObjectMaps.unmodifiable(recipeMap), Int2ObjectMaps.unmodifiable(stonecutterRecipeMap), netId);
+    }
+
+    /**
+     * @return a hash of the recipes as sent by the Java server, or null if they could not be serialized
+     */
+    @Nullable
+    private static HashCode hashContents(GeyserSession session, ClientboundUpdateRecipesPacket packet) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            packet.serialize(buf, session.getCodecHelper());
+            return Hashing.murmur3_128().hashBytes(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+        } catch (Exception e) {
+            session.getGeyser().getLogger().debug("Could not hash recipes, translating them for this session only: " + e.getMessage());
+            return null;
+        } finally {
+            buf.release();
+        }
     }
 
     //TODO: rewrite
@@ -284,4 +351,32 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
         int id;
         int count;
     }
+
+    private record RecipesKey(HashCode contentHash, int protocolVersion) {
+    }
+
+    /**
+     * @param craftingData the Bedrock recipes, in order. Entries of localized recipes have to be replaced per session.
+     * @param recipes crafting recipes by network ID. Must not be changed.
+     * @param stonecutterRecipes stonecutter recipes by network ID. Must not be changed.
+     * @param lastNetId the network ID after the last recipe
+     */
+    private record TranslatedRecipes(List<CraftingData> craftingData, List<LocalizedRecipe> localizedRecipes,
+                                     Int2ObjectMap<GeyserRecipe> recipes, Int2ObjectMap<GeyserStonecutterData> stonecutterRecipes,
+                                     int lastNetId) {
+    }
+
+    /**
+     * A recipe whose output keeps its NBT, and therefore depends on the locale and settings of the session.
+     *
+     * @param index the index of this recipe in {@link TranslatedRecipes#craftingData()}
+     */
+    private record LocalizedRecipe(int index, List<ItemDescriptorWithCount> inputs, UUID uuid, String tag, int priority,
+                                   int netId, ItemStack javaOutput) {
+
+        CraftingData translate(GeyserSession session) {
+            ItemData output = ItemTranslator.translateToBedrock(session, javaOutput);
+            return CraftingData.fromShapeless(uuid.toString(), inputs, Collections.singletonList(output), uuid, tag, priority, netId);
+        }
+    }
 }
@@ -43,6 +43,7 @@ public class JavaPlayerInfoRemoveTranslator extends PacketTranslator<Clientbound
         translate.setAction(PlayerListPacket.Action.REMOVE);
 
         for (UUID id : packet.getProfileIds()) {
+            session.getPlayerListSkinQueue().remove(id);
             // As the player entity is no longer present, we can remove the entry
             PlayerEntity entity = session.getEntityCache().removePlayerEntity(id);
             if (entity != null) {
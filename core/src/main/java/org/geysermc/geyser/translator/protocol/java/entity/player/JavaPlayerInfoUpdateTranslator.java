@@ -34,6 +34,7 @@ import com.nukkitx.protocol.bedrock.packet.PlayerListPacket;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.entity.type.player.PlayerEntity;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.skin.PlayerListSkinQueue;
 import org.geysermc.geyser.skin.SkinManager;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 import org.geysermc.geyser.translator.protocol.Translator;
@@ -94,9 +95,16 @@ public class JavaPlayerInfoUpdateTranslator extends PacketTranslator<Clientbound
                         GeyserImpl.getInstance().getLogger().debug("Loaded Local Bedrock Java Skin Data for " + session.getClientData().getUsername()));
             } else {
                 playerEntity.setValid(true);
-                PlayerListPacket.Entry playerListEntry = SkinManager.buildCachedEntry(session, playerEntity);
+                PlayerListSkinQueue skinQueue = session.getPlayerListSkinQueue();
+                if (skinQueue.isEnabled()) {
+                    // The skin follows once the entries themselves have been sent
+                    translate.getEntries().add(SkinManager.buildPlaceholderEntry(session, playerEntity));
+                    skinQueue.add(playerEntity);
+                } else {
+                    PlayerListPacket.Entry playerListEntry = SkinManager.buildCachedEntry(session, playerEntity);
 
-                translate.getEntries().add(playerListEntry);
+                    translate.getEntries().add(playerListEntry);
+                }
             }
         }
 
@@ -67,6 +67,8 @@ public class JavaAddPlayerTranslator extends PacketTranslator<ClientboundAddPlay
         session.getEntityCache().cacheEntity(entity);
 
         entity.sendPlayer();
+        // Visible players get their skin right away
+        session.getPlayerListSkinQueue().remove(entity.getUuid());
         SkinManager.requestAndHandleSkinAndCape(entity, session, null);
     }
 }
@@ -26,41 +26,24 @@
 package org.geysermc.geyser.translator.protocol.java.level;
 
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundForgetLevelChunkPacket;
-import com.nukkitx.math.vector.Vector3i;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 import org.geysermc.geyser.translator.protocol.Translator;
 import org.geysermc.geyser.util.ChunkUtils;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
 @Translator(packet = ClientboundForgetLevelChunkPacket.class)
 public class JavaForgetLevelChunkTranslator extends PacketTranslator<ClientboundForgetLevelChunkPacket> {
 
     @Override
     public void translate(GeyserSession session, ClientboundForgetLevelChunkPacket packet) {
         session.getChunkCache().removeChunk(packet.getX(), packet.getZ());
+        session.getSubChunkCache().removeColumn(packet.getX(), packet.getZ());
 
-        // Checks if a skull is in an unloaded chunk then removes it
-        List<Vector3i> removedSkulls = new ArrayList<>();
-        for (Vector3i position : session.getSkullCache().getSkulls().keySet()) {
-            if ((position.getX() >> 4) == packet.getX() && (position.getZ() >> 4) == packet.getZ()) {
-                removedSkulls.add(position);
-            }
-        }
-        removedSkulls.forEach(session.getSkullCache()::removeSkull);
+        session.getSkullCache().removeChunk(packet.getX(), packet.getZ());
 
+        // Item frames stay in the cache until their entity is removed, and are shown again when the chunk is loaded
         if (!session.getGeyser().getWorldManager().shouldExpectLecternHandled()) {
-            // Do the same thing with lecterns
-            Iterator<Vector3i> iterator = session.getLecternCache().iterator();
-            while (iterator.hasNext()) {
-                Vector3i position = iterator.next();
-                if ((position.getX() >> 4) == packet.getX() && (position.getZ() >> 4) == packet.getZ()) {
-                    iterator.remove();
-                }
-            }
+            session.getLecternCache().removeChunk(packet.getX(), packet.getZ());
         }
 
         ChunkUtils.sendEmptyChunk(session, packet.getX(), packet.getZ(), false);
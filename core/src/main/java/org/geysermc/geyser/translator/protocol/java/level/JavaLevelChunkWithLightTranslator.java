@@ -25,6 +25,7 @@
 
 package org.geysermc.geyser.translator.protocol.java.level;
 
+import com.github.steveice10.mc.protocol.codec.MinecraftCodecHelper;
 import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
 import com.github.steveice10.mc.protocol.data.game.chunk.ChunkSection;
 import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
@@ -44,19 +45,22 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.ints.IntLists;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import org.geysermc.geyser.entity.type.ItemFrameEntity;
 import org.geysermc.geyser.level.BedrockDimension;
+import org.geysermc.geyser.level.block.BlockStateFlags;
 import org.geysermc.geyser.level.block.BlockStateValues;
 import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.level.chunk.ChunkScratch;
+import org.geysermc.geyser.level.chunk.ChunkSectionCache;
 import org.geysermc.geyser.level.chunk.GeyserChunkSection;
+import org.geysermc.geyser.level.chunk.SharedChunkStore;
 import org.geysermc.geyser.level.chunk.bitarray.BitArray;
 import org.geysermc.geyser.level.chunk.bitarray.BitArrayVersion;
 import org.geysermc.geyser.level.chunk.bitarray.SingletonBitArray;
-import org.geysermc.geyser.registry.BlockRegistries;
+import org.geysermc.geyser.session.ChunkEncodingQueue;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.level.BiomeTranslator;
 import org.geysermc.geyser.translator.level.block.entity.BedrockOnlyBlockEntity;
@@ -70,7 +74,6 @@ import org.geysermc.geyser.util.ChunkUtils;
 import java.io.IOException;
 import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 
 import static org.geysermc.geyser.util.ChunkUtils.SERIALIZED_CHUNK_DATA;
 import static org.geysermc.geyser.util.ChunkUtils.indexYZXtoXZY;
@@ -80,36 +83,74 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
 
     @Override
     public void translate(GeyserSession session, ClientboundLevelChunkWithLightPacket packet) {
+        ChunkEncodingQueue encodingQueue = session.getChunkEncodingQueue();
+        if (encodingQueue.isEnabled()) {
+            // A respawn before this chunk may still be waiting for earlier chunks, so the world height and dimension
+            // are only read once it has been translated
+            encodingQueue.submit(() -> prepare(session, packet), chunk -> encode(session, packet, chunk),
+                    chunk -> send(session, packet, chunk));
+        } else {
+            EncodedChunk chunk = prepare(session, packet);
+            encode(session, packet, chunk);
+            send(session, packet, chunk);
+        }
+    }
+
+    private static EncodedChunk prepare(GeyserSession session, ClientboundLevelChunkWithLightPacket packet) {
         if (session.isSpawned()) {
             ChunkUtils.updateChunkPosition(session, session.getPlayerEntity().getPosition().toInt());
         }
+        return new EncodedChunk(session, packet);
+    }
 
-        // Ensure that, if the player is using lower world heights, the position is not offset
-        int yOffset = session.getChunkCache().getChunkMinY();
-        int chunkSize = session.getChunkCache().getChunkHeightY();
-        int biomeGlobalPalette = session.getBiomeGlobalPalette();
+    @Override
+    public boolean shouldWaitForChunks() {
+        // Chunks are put into the encoding queue themselves, so they can be encoded in parallel
+        return false;
+    }
 
-        DataPalette[] javaChunks = new DataPalette[chunkSize];
+    /**
+     * Translates all chunk sections and biomes. If the chunk encoding pool is enabled, this is not run on the
+     * session's event loop, so only session state that cannot change while chunks are being encoded may be used here.
+     */
+    private static void encode(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, EncodedChunk chunk) {
+        int yOffset = chunk.yOffset;
+        int chunkSize = chunk.chunkSize;
+
+        DataPalette[] javaChunks = chunk.javaChunks = new DataPalette[chunkSize];
         DataPalette[] javaBiomes = new DataPalette[chunkSize];
 
-        final BlockEntityInfo[] blockEntities = packet.getBlockEntities();
-        final List<NbtMap> bedrockBlockEntities = new ObjectArrayList<>(blockEntities.length);
+        final List<NbtMap> bedrockBlockEntities = chunk.bedrockBlockEntities;
 
-        BitSet waterloggedPaletteIds = new BitSet();
-        BitSet bedrockOnlyBlockEntityIds = new BitSet();
+        ChunkScratch scratch = ChunkScratch.get();
 
-        BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
+        BedrockDimension bedrockDimension = chunk.bedrockDimension;
         int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
+        // As of 1.18.30, the amount of biomes read is dependent on how high Bedrock thinks the dimension is
+        int biomeCount = bedrockDimension.height() >> 4;
 
-        int sectionCount;
-        byte[] payload;
-        ByteBuf byteBuf = null;
-        GeyserChunkSection[] sections = new GeyserChunkSection[javaChunks.length - (yOffset + (bedrockDimension.minY() >> 4))];
+        ChunkSectionCache sectionCache = session.getGeyser().getChunkSectionCache();
+        List<byte[]> blobs = chunk.blobs;
+        boolean keepSections = chunk.subChunkRequests || blobs != null;
 
         try {
-            ByteBuf in = Unpooled.wrappedBuffer(packet.getChunkData());
+            byte[] chunkData = packet.getChunkData();
+            if (keepSections) {
+                // Each section is sent on its own
+                chunk.serializedSections = new byte[javaChunks.length - (yOffset + (bedrockDimension.minY() >> 4))][];
+            } else {
+                // Sections are written into the payload as soon as they have been translated
+                int size = chunkData.length; // Bedrock sections are about as large as Java's
+                size += ChunkUtils.EMPTY_BIOME_DATA.length * biomeCount;
+                size += 1; // Border blocks
+                size += packet.getBlockEntities().length * 64; // Conservative estimate of 64 bytes per tile entity
+                chunk.data = ByteBufAllocator.DEFAULT.buffer(size);
+            }
+
+            ByteBuf in = Unpooled.wrappedBuffer(chunkData);
             for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
-                ChunkSection javaSection = session.getCodecHelper().readChunkSection(in, biomeGlobalPalette);
+                int sectionStart = in.readerIndex();
+                ChunkSection javaSection = chunk.codecHelper.readChunkSection(in, chunk.biomeGlobalPalette);
                 javaChunks[sectionY] = javaSection.getChunkData();
                 javaBiomes[sectionY] = javaSection.getBiomeData();
 
@@ -127,120 +168,191 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                 Palette javaPalette = javaSection.getChunkData().getPalette();
                 BitStorage javaData = javaSection.getChunkData().getStorage();
 
+                ChunkSectionCache.SectionKey cacheKey = null;
+                if (sectionCache != null) {
+                    cacheKey = sectionCache.key(chunk.protocolVersion, chunkData, sectionStart, in.readerIndex());
+                    byte[] serialized = sectionCache.get(cacheKey);
+                    if (serialized != null) {
+                        // Another session has already translated this exact section
+                        chunk.addSection(bedrockSectionY, serialized, null);
+                        continue;
+                    }
+                }
+
+                int blockEntityCount = bedrockBlockEntities.size();
+                GeyserChunkSection section;
+
                 if (javaPalette instanceof GlobalPalette) {
                     // As this is the global palette, simply iterate through the whole chunk section once
-                    GeyserChunkSection section = new GeyserChunkSection(session.getBlockMappings().getBedrockAirId());
+                    section = new GeyserChunkSection(session.getBlockMappings().getBedrockAirId());
                     for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
                         int javaId = javaData.get(yzx);
                         int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
                         int xzy = indexYZXtoXZY(yzx);
                         section.getBlockStorageArray()[0].setFullBlock(xzy, bedrockId);
 
-                        if (BlockRegistries.WATERLOGGED.get().contains(javaId)) {
+                        if (BlockStateFlags.isWaterlogged(javaId)) {
                             section.getBlockStorageArray()[1].setFullBlock(xzy, session.getBlockMappings().getBedrockWaterId());
                         }
 
                         // Check if block is piston or flower to see if we'll need to create additional block entities, as they're only block entities in Bedrock
-                        if (BlockStateValues.getFlowerPotValues().containsKey(javaId) || BlockStateValues.getPistonValues().containsKey(javaId) || BlockStateValues.isNonWaterCauldron(javaId)) {
+                        if (BlockStateFlags.isBedrockOnlyBlockEntity(javaId)) {
                             bedrockBlockEntities.add(BedrockOnlyBlockEntity.getTag(session,
                                     Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
                                     javaId
                             ));
                         }
                     }
-                    sections[bedrockSectionY] = section;
-                    continue;
-                }
-
-                if (javaPalette instanceof SingletonPalette) {
+                } else if (javaPalette instanceof SingletonPalette) {
                     // There's only one block here. Very easy!
                     int javaId = javaPalette.idToState(0);
                     int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
                     BlockStorage blockStorage = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(bedrockId));
 
-                    if (BlockRegistries.WATERLOGGED.get().contains(javaId)) {
+                    if (BlockStateFlags.isWaterlogged(javaId)) {
                         BlockStorage waterlogged = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(session.getBlockMappings().getBedrockWaterId()));
-                        sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage, waterlogged});
+                        section = new GeyserChunkSection(new BlockStorage[] {blockStorage, waterlogged});
                     } else {
-                        sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage});
+                        section = new GeyserChunkSection(new BlockStorage[] {blockStorage});
                     }
                     // If a chunk contains all of the same piston or flower pot then god help us
-                    continue;
-                }
-
-                IntList bedrockPalette = new IntArrayList(javaPalette.size());
-                waterloggedPaletteIds.clear();
-                bedrockOnlyBlockEntityIds.clear();
+                } else {
+                    IntList bedrockPalette = scratch.palette(javaPalette.size());
+                    BitSet waterloggedPaletteIds = scratch.waterloggedPaletteIds();
+                    BitSet bedrockOnlyBlockEntityIds = scratch.bedrockOnlyBlockEntityIds();
 
-                // Iterate through palette and convert state IDs to Bedrock, doing some additional checks as we go
-                for (int i = 0; i < javaPalette.size(); i++) {
-                    int javaId = javaPalette.idToState(i);
-                    bedrockPalette.add(session.getBlockMappings().getBedrockBlockId(javaId));
+                    // Iterate through palette and convert state IDs to Bedrock, doing some additional checks as we go
+                    for (int i = 0; i < javaPalette.size(); i++) {
+                        int javaId = javaPalette.idToState(i);
+                        bedrockPalette.add(session.getBlockMappings().getBedrockBlockId(javaId));
 
-                    if (BlockRegistries.WATERLOGGED.get().contains(javaId)) {
-                        waterloggedPaletteIds.set(i);
-                    }
+                        if (BlockStateFlags.isWaterlogged(javaId)) {
+                            waterloggedPaletteIds.set(i);
+                        }
 
-                    // Check if block is piston, flower or cauldron to see if we'll need to create additional block entities, as they're only block entities in Bedrock
-                    if (BlockStateValues.getFlowerPotValues().containsKey(javaId) || BlockStateValues.getPistonValues().containsKey(javaId) || BlockStateValues.isNonWaterCauldron(javaId)) {
-                        bedrockOnlyBlockEntityIds.set(i);
+                        // Check if block is piston, flower or cauldron to see if we'll need to create additional block entities, as they're only block entities in Bedrock
+                        if (BlockStateFlags.isBedrockOnlyBlockEntity(javaId)) {
+                            bedrockOnlyBlockEntityIds.set(i);
+                        }
                     }
-                }
 
-                // Add Bedrock-exclusive block entities
-                // We only if the palette contained any blocks that are Bedrock-exclusive block entities to avoid iterating through the whole block data
-                // for no reason, as most sections will not contain any pistons or flower pots
-                if (!bedrockOnlyBlockEntityIds.isEmpty()) {
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        if (bedrockOnlyBlockEntityIds.get(paletteId)) {
-                            bedrockBlockEntities.add(BedrockOnlyBlockEntity.getTag(session,
-                                    Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
-                                    javaPalette.idToState(paletteId)
-                            ));
+                    // Add Bedrock-exclusive block entities
+                    // We only if the palette contained any blocks that are Bedrock-exclusive block entities to avoid iterating through the whole block data
+                    // for no reason, as most sections will not contain any pistons or flower pots
+                    if (!bedrockOnlyBlockEntityIds.isEmpty()) {
+                        for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                            int paletteId = javaData.get(yzx);
+                            if (bedrockOnlyBlockEntityIds.get(paletteId)) {
+                                bedrockBlockEntities.add(BedrockOnlyBlockEntity.getTag(session,
+                                        Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
+                                        javaPalette.idToState(paletteId)
+                                ));
+                            }
                         }
                     }
-                }
 
-                BitArray bedrockData = BitArrayVersion.forBitsCeil(javaData.getBitsPerEntry()).createArray(BlockStorage.SIZE);
-                BlockStorage layer0 = new BlockStorage(bedrockData, bedrockPalette);
-                BlockStorage[] layers;
+                    // Every index is set below, so the array does not need to be cleared first
+                    BitArray bedrockData = scratch.blockData(BitArrayVersion.forBitsCeil(javaData.getBitsPerEntry()));
+                    BlockStorage layer0 = new BlockStorage(bedrockData, bedrockPalette);
+                    BlockStorage[] layers;
 
-                // Convert data array from YZX to XZY coordinate order
-                if (waterloggedPaletteIds.isEmpty()) {
-                    // No blocks are waterlogged, simply convert coordinate order
-                    // This could probably be optimized further...
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        bedrockData.set(indexYZXtoXZY(yzx), javaData.get(yzx));
-                    }
+                    // Convert data array from YZX to XZY coordinate order
+                    if (waterloggedPaletteIds.isEmpty()) {
+                        // No blocks are waterlogged, simply convert coordinate order
+                        bedrockData.setAllFromYZX(javaData.getData(), javaData.getBitsPerEntry());
 
-                    layers = new BlockStorage[]{ layer0 };
-                } else {
-                    // The section contains waterlogged blocks, we need to convert coordinate order AND generate a V1 block storage for
-                    // layer 1 with palette ID 1 indicating water
-                    int[] layer1Data = new int[BlockStorage.SIZE >> 5];
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
+                        layers = new BlockStorage[]{ layer0 };
+                    } else {
+                        // The section contains waterlogged blocks, we need to convert coordinate order AND generate a V1 block storage for
+                        // layer 1 with palette ID 1 indicating water
+                        int[] layer1Data = scratch.layer1Data();
+                        bedrockData.setAllFromYZX(javaData.getData(), javaData.getBitsPerEntry(), waterloggedPaletteIds, layer1Data);
 
-                        if (waterloggedPaletteIds.get(paletteId)) {
-                            layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
-                        }
+                        // V1 palette
+                        IntList layer1Palette = IntList.of(
+                                session.getBlockMappings().getBedrockAirId(), // Air - see BlockStorage's constructor for more information
+                                session.getBlockMappings().getBedrockWaterId());
+
+                        layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
                     }
 
-                    // V1 palette
-                    IntList layer1Palette = IntList.of(
-                            session.getBlockMappings().getBedrockAirId(), // Air - see BlockStorage's constructor for more information
-                            session.getBlockMappings().getBedrockWaterId());
+                    section = new GeyserChunkSection(layers);
+                }
 
-                    layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
+                // The section may use scratch objects, so it has to be written out before translating the next one
+                byte[] serialized = null;
+                if (cacheKey != null && bedrockBlockEntities.size() == blockEntityCount) {
+                    // Bedrock-only block entities depend on the position of this section, so only cache it if there are none
+                    serialized = sectionCache.put(cacheKey, scratch.serialize(section));
+                } else if (keepSections) {
+                    serialized = scratch.serialize(section);
                 }
+                chunk.addSection(bedrockSectionY, serialized, section);
+            }
 
-                sections[bedrockSectionY] = new GeyserChunkSection(layers);
+            if (keepSections) {
+                byte[][] serializedSections = chunk.serializedSections;
+                if (blobs != null) {
+                    // Each section is sent as its own blob, which the client may already have stored
+                    for (int i = 0; i < chunk.sectionCount; i++) {
+                        blobs.add(serializedSections[i] != null ? serializedSections[i] : SERIALIZED_CHUNK_DATA);
+                    }
+                }
+                // Only biomes are left to be written
+                chunk.data = ByteBufAllocator.DEFAULT.buffer(ChunkUtils.EMPTY_BIOME_DATA.length * biomeCount + 1 + packet.getBlockEntities().length * 64);
             }
+            ByteBuf byteBuf = chunk.data;
 
-            session.getChunkCache().addToCache(packet.getX(), packet.getZ(), javaChunks);
+            int dimensionOffset = bedrockDimension.minY() >> 4;
+            for (int i = 0; i < biomeCount; i++) {
+                int biomeYOffset = dimensionOffset + i;
+                if (biomeYOffset < yOffset) {
+                    // Ignore this biome section since it goes below the height of the Java world
+                    byteBuf.writeBytes(ChunkUtils.EMPTY_BIOME_DATA);
+                    continue;
+                }
+                if (biomeYOffset >= (chunkSize + yOffset)) {
+                    // This biome section goes above the height of the Java world
+                    // The byte written here is a header that says to carry on the biome data from the previous chunk
+                    byteBuf.writeByte((127 << 1) | 1);
+                    continue;
+                }
+
+                BiomeTranslator.toNewBedrockBiome(session, javaBiomes[i + (dimensionOffset - yOffset)]).writeToNetwork(byteBuf);
+            }
+
+            if (blobs != null) {
+                // The biomes of the whole column are the last blob; only the border blocks and block entities remain in the payload
+                byte[] biomeBlob = new byte[byteBuf.readableBytes()];
+                byteBuf.readBytes(biomeBlob);
+                blobs.add(biomeBlob);
+            }
+        } catch (Throwable t) {
+            if (chunk.data != null) {
+                chunk.data.release();
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * Caches the chunk, translates its block entities and sends it to the client. Always run on the session's event loop.
+     */
+    private static void send(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, EncodedChunk chunk) {
+        ByteBuf byteBuf = chunk.data;
+        if (session.isClosed()) {
+            byteBuf.release();
+            return;
+        }
+
+        final BlockEntityInfo[] blockEntities = packet.getBlockEntities();
+        final List<NbtMap> bedrockBlockEntities = chunk.bedrockBlockEntities;
+        DataPalette[] javaChunks = chunk.javaChunks;
+        int yOffset = chunk.yOffset;
+
+        byte[] payload;
+        try {
+            session.getChunkCache().addToCache(packet.getX(), packet.getZ(), javaChunks, chunk.contentHash);
 
             final int chunkBlockX = packet.getX() << 4;
             final int chunkBlockZ = packet.getZ() << 4;
@@ -276,65 +388,17 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                 }
             }
 
-            // Find highest section
-            sectionCount = sections.length - 1;
-            while (sectionCount >= 0 && sections[sectionCount] == null) {
-                sectionCount--;
-            }
-            sectionCount++;
-
-            // As of 1.18.30, the amount of biomes read is dependent on how high Bedrock thinks the dimension is
-            int biomeCount = bedrockDimension.height() >> 4;
-
-            // Estimate chunk size
-            int size = 0;
-            for (int i = 0; i < sectionCount; i++) {
-                GeyserChunkSection section = sections[i];
-                if (section != null) {
-                    size += section.estimateNetworkSize();
-                } else {
-                    size += SERIALIZED_CHUNK_DATA.length;
-                }
-            }
-            size += ChunkUtils.EMPTY_BIOME_DATA.length * biomeCount;
-            size += 1; // Border blocks
-            size += bedrockBlockEntities.size() * 64; // Conservative estimate of 64 bytes per tile entity
-
-            // Allocate output buffer
-            byteBuf = ByteBufAllocator.DEFAULT.buffer(size);
-            for (int i = 0; i < sectionCount; i++) {
-                GeyserChunkSection section = sections[i];
-                if (section != null) {
-                    section.writeToNetwork(byteBuf);
-                } else {
-                    byteBuf.writeBytes(SERIALIZED_CHUNK_DATA);
-                }
-            }
-
-            int dimensionOffset = bedrockDimension.minY() >> 4;
-            for (int i = 0; i < biomeCount; i++) {
-                int biomeYOffset = dimensionOffset + i;
-                if (biomeYOffset < yOffset) {
-                    // Ignore this biome section since it goes below the height of the Java world
-                    byteBuf.writeBytes(ChunkUtils.EMPTY_BIOME_DATA);
-                    continue;
-                }
-                if (biomeYOffset >= (chunkSize + yOffset)) {
-                    // This biome section goes above the height of the Java world
-                    // The byte written here is a header that says to carry on the biome data from the previous chunk
-                    byteBuf.writeByte((127 << 1) | 1);
-                    continue;
-                }
-
-                BiomeTranslator.toNewBedrockBiome(session, javaBiomes[i + (dimensionOffset - yOffset)]).writeToNetwork(byteBuf);
-            }
-
             byteBuf.writeByte(0); // Border blocks - Edu edition only
 
-            // Encode tile entities into buffer
-            NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
-            for (NbtMap blockEntity : bedrockBlockEntities) {
-                nbtStream.writeTag(blockEntity);
+            if (chunk.subChunkRequests) {
+                // Block entities are sent with the section they are in
+                session.getSubChunkCache().addColumn(packet.getX(), packet.getZ(), chunk.serializedSections, bedrockBlockEntities);
+            } else {
+                // Encode tile entities into buffer
+                NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
+                for (NbtMap blockEntity : bedrockBlockEntities) {
+                    nbtStream.writeTag(blockEntity);
+                }
             }
 
             // Copy data into byte[], because the protocol lib really likes things that are s l o w
@@ -343,26 +407,93 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
             session.getGeyser().getLogger().error("IO error while encoding chunk", e);
             return;
         } finally {
-            if (byteBuf != null) {
-                byteBuf.release(); // Release buffer to allow buffer pooling to be useful
-            }
+            byteBuf.release(); // Release buffer to allow buffer pooling to be useful
         }
 
         LevelChunkPacket levelChunkPacket = new LevelChunkPacket();
-        levelChunkPacket.setSubChunksLength(sectionCount);
-        levelChunkPacket.setCachingEnabled(false);
+        if (chunk.subChunkRequests) {
+            levelChunkPacket.setRequestSubChunks(true);
+            levelChunkPacket.setSubChunkLimit(chunk.sectionCount);
+        } else {
+            levelChunkPacket.setSubChunksLength(chunk.sectionCount);
+        }
+        levelChunkPacket.setCachingEnabled(chunk.blobs != null);
+        if (chunk.blobs != null) {
+            session.getBlobCache().addBlobs(chunk.blobs, levelChunkPacket.getBlobIds());
+        }
         levelChunkPacket.setChunkX(packet.getX());
         levelChunkPacket.setChunkZ(packet.getZ());
         levelChunkPacket.setData(payload);
         session.sendUpstreamPacket(levelChunkPacket);
 
-        for (Map.Entry<Vector3i, ItemFrameEntity> entry : session.getItemFrameCache().entrySet()) {
-            Vector3i position = entry.getKey();
-            if ((position.getX() >> 4) == packet.getX() && (position.getZ() >> 4) == packet.getZ()) {
-                // Update this item frame so it doesn't get lost in the abyss
-                //TODO optimize
-                entry.getValue().updateBlock(true);
+        for (ItemFrameEntity itemFrame : session.getItemFrameCache().getChunk(packet.getX(), packet.getZ()).values()) {
+            // Update this item frame so it doesn't get lost in the abyss
+            itemFrame.updateBlock(true);
+        }
+    }
+
+    /**
+     * The state of a chunk between encoding its sections and sending it.
+     */
+    private static final class EncodedChunk {
+        private final int yOffset;
+        private final int chunkSize;
+        private final int biomeGlobalPalette;
+        private final BedrockDimension bedrockDimension;
+        private final MinecraftCodecHelper codecHelper;
+        private final int protocolVersion;
+        private final boolean subChunkRequests;
+        private final List<byte[]> blobs;
+
+        private final List<NbtMap> bedrockBlockEntities;
+        private DataPalette[] javaChunks;
+        /**
+         * Only calculated if the chunk cache shares chunks between sessions.
+         */
+        private final long contentHash;
+        private byte[][] serializedSections;
+        private int sectionCount;
+        /**
+         * The serialized sections and biomes, or only the remaining payload if the client blob cache is in use.
+         */
+        private ByteBuf data;
+
+        private EncodedChunk(GeyserSession session, ClientboundLevelChunkWithLightPacket packet) {
+            // Ensure that, if the player is using lower world heights, the position is not offset
+            this.yOffset = session.getChunkCache().getChunkMinY();
+            this.chunkSize = session.getChunkCache().getChunkHeightY();
+            this.biomeGlobalPalette = session.getBiomeGlobalPalette();
+            this.bedrockDimension = session.getChunkCache().getBedrockDimension();
+            this.codecHelper = session.getCodecHelper();
+            this.protocolVersion = session.getUpstream().getProtocolVersion();
+            // If enabled, sections are only sent when the client requests them
+            this.subChunkRequests = session.getSubChunkCache().isEnabled();
+            // Only used if the client blob cache is enabled
+            this.blobs = !subChunkRequests && session.getBlobCache().isEnabled() ? new ObjectArrayList<>() : null;
+            this.bedrockBlockEntities = new ObjectArrayList<>(packet.getBlockEntities().length);
+            this.contentHash = session.getChunkCache().isShared() ? SharedChunkStore.hash(packet.getChunkData()) : 0;
+        }
+
+        /**
+         * Adds a translated section. Sections must be added from the bottom up. Unless each section is sent on its own,
+         * it is written to the payload right away, along with any empty sections below it.
+         *
+         * @param serialized the serialized section, or null to write the section directly
+         */
+        private void addSection(int bedrockSectionY, byte[] serialized, GeyserChunkSection section) {
+            if (serializedSections != null) {
+                serializedSections[bedrockSectionY] = serialized;
+            } else {
+                for (int i = sectionCount; i < bedrockSectionY; i++) {
+                    data.writeBytes(SERIALIZED_CHUNK_DATA);
+                }
+                if (serialized != null) {
+                    data.writeBytes(serialized);
+                } else {
+                    section.writeToNetwork(data);
+                }
             }
+            sectionCount = bedrockSectionY + 1;
         }
     }
-}
\ No newline at end of file
+}
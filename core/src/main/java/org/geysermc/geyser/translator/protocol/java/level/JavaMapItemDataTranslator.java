@@ -32,6 +32,7 @@ import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.data.MapDecoration;
 import com.nukkitx.protocol.bedrock.data.MapTrackedObject;
 import org.geysermc.geyser.level.BedrockMapIcon;
+import org.geysermc.geyser.level.MapCanvas;
 import org.geysermc.geyser.level.MapColor;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
@@ -43,40 +44,65 @@ public class JavaMapItemDataTranslator extends PacketTranslator<ClientboundMapIt
 
     @Override
     public void translate(GeyserSession session, ClientboundMapItemDataPacket packet) {
-        com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket mapItemDataPacket = new com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket();
-        boolean shouldStore = false;
-
-        mapItemDataPacket.setUniqueMapId(packet.getMapId());
-        mapItemDataPacket.setDimensionId(DimensionUtils.javaToBedrock(session.getDimension()));
-        mapItemDataPacket.setLocked(packet.isLocked());
-        mapItemDataPacket.setOrigin(Vector3i.ZERO); // Required since 1.19.20
-        mapItemDataPacket.setScale(packet.getScale());
-        // Required as of 1.19.50
-        mapItemDataPacket.getTrackedEntityIds().add(packet.getMapId());
+        com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket mapItemDataPacket = createMapPacket(session, packet);
+        MapCanvas canvas = null;
 
         MapData data = packet.getData();
         if (data != null) {
-            mapItemDataPacket.setXOffset(data.getX());
-            mapItemDataPacket.setYOffset(data.getY());
-            mapItemDataPacket.setWidth(data.getColumns());
-            mapItemDataPacket.setHeight(data.getRows());
+            MapCanvas previous = session.getMapCanvases().get(packet.getMapId());
+            if (data.getColumns() == MapCanvas.SIZE && data.getRows() == MapCanvas.SIZE) {
+                // We have a full map image, this usually only happens on spawn for the initial image
+                canvas = MapCanvas.of(packet.getMapId(), data.getData());
+                // If the client already knows the map, only send what changed
+                int[] area = previous == null ? new int[] {0, 0, MapCanvas.SIZE, MapCanvas.SIZE} : previous.changedArea(canvas);
+                if (area != null) {
+                    setColors(mapItemDataPacket, area[0], area[1], area[2], area[3], canvas.getColors(area[0], area[1], area[2], area[3]));
+                }
+            } else {
+                // Every int entry is an ARGB color
+                int[] colors = new int[data.getData().length];
+                for (int i = 0; i < colors.length; i++) {
+                    colors[i] = MapColor.toARGB(data.getData()[i]);
+                }
+                setColors(mapItemDataPacket, data.getX(), data.getY(), data.getColumns(), data.getRows(), colors);
 
-            // We have a full map image, this usually only happens on spawn for the initial image
-            if (mapItemDataPacket.getWidth() == 128 && mapItemDataPacket.getHeight() == 128) {
-                shouldStore = true;
+                if (previous != null) {
+                    canvas = previous.update(packet.getMapId(), data.getX(), data.getY(), data.getColumns(), data.getRows(), data.getData());
+                }
             }
 
-            // Every int entry is an ARGB color
-            int[] colors = new int[data.getData().length];
-
-            int idx = 0;
-            for (byte colorId : data.getData()) {
-                colors[idx++] = MapColor.fromId(colorId & 0xFF).getARGB();
+            if (canvas != null) {
+                session.getMapCanvases().put(packet.getMapId(), canvas);
+            } else {
+                session.getMapCanvases().remove(packet.getMapId());
             }
+        }
 
-            mapItemDataPacket.setColors(colors);
+        // Store the map to send when the client requests it, as bedrock expects the data after a MapInfoRequestPacket
+        if (canvas != null) {
+            com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket fullMapPacket = mapItemDataPacket;
+            if (mapItemDataPacket.getWidth() != MapCanvas.SIZE || mapItemDataPacket.getHeight() != MapCanvas.SIZE) {
+                fullMapPacket = createMapPacket(session, packet);
+                setColors(fullMapPacket, 0, 0, MapCanvas.SIZE, MapCanvas.SIZE, canvas.getColors());
+            }
+            session.getStoredMaps().put(fullMapPacket.getUniqueMapId(), fullMapPacket);
         }
 
+        // Send anyway just in case
+        session.sendUpstreamPacket(mapItemDataPacket);
+    }
+
+    private static com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket createMapPacket(GeyserSession session, ClientboundMapItemDataPacket packet) {
+        com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket mapItemDataPacket = new com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket();
+
+        mapItemDataPacket.setUniqueMapId(packet.getMapId());
+        mapItemDataPacket.setDimensionId(DimensionUtils.javaToBedrock(session.getDimension()));
+        mapItemDataPacket.setLocked(packet.isLocked());
+        mapItemDataPacket.setOrigin(Vector3i.ZERO); // Required since 1.19.20
+        mapItemDataPacket.setScale(packet.getScale());
+        // Required as of 1.19.50
+        mapItemDataPacket.getTrackedEntityIds().add(packet.getMapId());
+
         // Bedrock needs an entity id to display an icon
         int id = 0;
         for (MapIcon icon : packet.getIcons()) {
@@ -86,13 +112,15 @@ public class JavaMapItemDataTranslator extends PacketTranslator<ClientboundMapIt
             mapItemDataPacket.getDecorations().add(new MapDecoration(bedrockMapIcon.getIconID(), icon.getIconRotation(), icon.getCenterX(), icon.getCenterZ(), "", bedrockMapIcon.toARGB()));
             id++;
         }
+        return mapItemDataPacket;
+    }
 
-        // Store the map to send when the client requests it, as bedrock expects the data after a MapInfoRequestPacket
-        if (shouldStore) {
-            session.getStoredMaps().put(mapItemDataPacket.getUniqueMapId(), mapItemDataPacket);
-        }
-
-        // Send anyway just in case
-        session.sendUpstreamPacket(mapItemDataPacket);
+    private static void setColors(com.nukkitx.protocol.bedrock.packet.ClientboundMapItemDataPacket mapItemDataPacket,
+                                  int x, int y, int columns, int rows, int[] colors) {
+        mapItemDataPacket.setXOffset(x);
+        mapItemDataPacket.setYOffset(y);
+        mapItemDataPacket.setWidth(columns);
+        mapItemDataPacket.setHeight(rows);
+        mapItemDataPacket.setColors(colors);
     }
 }
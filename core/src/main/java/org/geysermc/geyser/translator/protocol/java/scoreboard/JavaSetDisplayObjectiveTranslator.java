@@ -27,7 +27,6 @@ package org.geysermc.geyser.translator.protocol.java.scoreboard;
 
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.scoreboard.ClientboundSetDisplayObjectivePacket;
 import org.geysermc.geyser.scoreboard.Scoreboard;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.cache.WorldCache;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
@@ -40,14 +39,9 @@ public class JavaSetDisplayObjectiveTranslator extends PacketTranslator<Clientbo
     public void translate(GeyserSession session, ClientboundSetDisplayObjectivePacket packet) {
         WorldCache worldCache = session.getWorldCache();
         Scoreboard scoreboard = worldCache.getScoreboard();
-        int pps = worldCache.increaseAndGetScoreboardPacketsPerSecond();
 
         scoreboard.displayObjective(packet.getName(), packet.getPosition());
 
-        // ScoreboardUpdater will handle it for us if the packets per second
-        // (for score and team packets) is higher than the first threshold
-        if (pps < ScoreboardUpdater.FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-            scoreboard.onUpdate();
-        }
+        worldCache.scheduleScoreboardUpdate();
     }
 }
@@ -32,7 +32,6 @@ import com.github.steveice10.mc.protocol.packet.ingame.clientbound.scoreboard.Cl
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.GeyserLogger;
 import org.geysermc.geyser.scoreboard.Scoreboard;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.scoreboard.Team;
 import org.geysermc.geyser.scoreboard.UpdateType;
 import org.geysermc.geyser.session.GeyserSession;
@@ -57,8 +56,6 @@ public class JavaSetPlayerTeamTranslator extends PacketTranslator<ClientboundSet
             return;
         }
 
-        int pps = session.getWorldCache().increaseAndGetScoreboardPacketsPerSecond();
-
         Scoreboard scoreboard = session.getWorldCache().getScoreboard();
         Team team = scoreboard.getTeam(packet.getTeamName());
         switch (packet.getAction()) {
@@ -137,10 +134,6 @@ public class JavaSetPlayerTeamTranslator extends PacketTranslator<ClientboundSet
             case REMOVE -> scoreboard.removeTeam(packet.getTeamName());
         }
 
-        // ScoreboardUpdater will handle it for us if the packets per second
-        // (for score and team packets) is higher than the first threshold
-        if (pps < ScoreboardUpdater.FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-            scoreboard.onUpdate();
-        }
+        session.getWorldCache().scheduleScoreboardUpdate();
     }
 }
@@ -27,6 +27,8 @@ package org.geysermc.geyser.translator.text;
 
 import com.github.steveice10.mc.protocol.data.DefaultComponentSerializer;
 import com.github.steveice10.mc.protocol.data.game.scoreboard.TeamColor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.nukkitx.protocol.bedrock.packet.TextPacket;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TranslatableComponent;
@@ -39,6 +41,7 @@ import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.text.*;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class MessageTranslator {
     // These are used for handling the translations of the messages
@@ -48,6 +51,15 @@ public class MessageTranslator {
     // Possible TODO: replace the legacy hover event serializer with an empty one since we have no use for hover events
     private static final GsonComponentSerializer GSON_SERIALIZER;
 
+    /**
+     * Converted messages shared by all sessions, so the same broadcast is only converted once per language.
+     * Messages without translatable components are stored with an empty locale.
+     */
+    private static final Cache<ConvertedMessageKey, String> CONVERTED_MESSAGES = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .build();
+
     // Store team colors for player names
     private static final Map<TeamColor, String> TEAM_COLORS = new EnumMap<>(TeamColor.class);
 
@@ -103,9 +115,35 @@ public class MessageTranslator {
      * @return Parsed and formatted message for bedrock
      */
     public static String convertMessage(Component message, String locale) {
+        boolean translatable = hasTranslatable(message);
+        String cacheLocale;
+        if (!translatable) {
+            // Same message in every language
+            cacheLocale = "";
+        } else if (MinecraftLocale.LOCALE_MAPPINGS.containsKey(locale.toLowerCase(Locale.ROOT))) {
+            cacheLocale = locale;
+        } else {
+            // The locale is not loaded (yet); don't remember a fallback translation
+            return convertMessageUncached(message, locale, true);
+        }
+
+        ConvertedMessageKey key = new ConvertedMessageKey(message, cacheLocale);
+        String converted = CONVERTED_MESSAGES.getIfPresent(key);
+        if (converted == null) {
+            converted = convertMessageUncached(message, locale, translatable);
+            if (!converted.isEmpty()) {
+                CONVERTED_MESSAGES.put(key, converted);
+            }
+        }
+        return converted;
+    }
+
+    private static String convertMessageUncached(Component message, String locale, boolean translatable) {
         try {
-            // Translate any components that require it
-            message = RENDERER.render(message, locale);
+            if (translatable) {
+                // Translate any components that require it
+                message = RENDERER.render(message, locale);
+            }
 
             String legacy = LegacyComponentSerializer.legacySection().serialize(message);
 
@@ -145,6 +183,21 @@ public class MessageTranslator {
         }
     }
 
+    /**
+     * @return if this component or any of its children needs to be translated
+     */
+    private static boolean hasTranslatable(Component component) {
+        if (component instanceof TranslatableComponent) {
+            return true;
+        }
+        for (Component child : component.children()) {
+            if (hasTranslatable(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static String convertMessage(String message, String locale) {
         return convertMessage(GSON_SERIALIZER.deserialize(message), locale);
     }
@@ -320,4 +373,7 @@ public class MessageTranslator {
     public static void init() {
         // no-op
     }
+
+    private record ConvertedMessageKey(Component message, String locale) {
+    }
 }
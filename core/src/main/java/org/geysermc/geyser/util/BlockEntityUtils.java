@@ -87,6 +87,9 @@ public class BlockEntityUtils {
         BlockEntityDataPacket blockEntityPacket = new BlockEntityDataPacket();
         blockEntityPacket.setBlockPosition(position);
         blockEntityPacket.setData(blockEntity);
-        session.sendUpstreamPacket(blockEntityPacket);
+        if (!session.getSubChunkCache().trackUpdate(blockEntityPacket)) {
+            // Otherwise, this is sent once the client requests the section it is in
+            session.sendUpstreamPacket(blockEntityPacket);
+        }
     }
 }
@@ -25,32 +25,56 @@
 
 package org.geysermc.geyser.util;
 
+import com.github.steveice10.mc.protocol.data.game.level.block.BlockChangeEntry;
 import com.nukkitx.math.vector.Vector2i;
 import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.packet.LevelChunkPacket;
 import com.nukkitx.protocol.bedrock.packet.NetworkChunkPublisherUpdatePacket;
 import com.nukkitx.protocol.bedrock.packet.UpdateBlockPacket;
+import com.nukkitx.protocol.bedrock.packet.UpdateSubChunkBlocksPacket;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import lombok.experimental.UtilityClass;
 import org.geysermc.geyser.entity.type.ItemFrameEntity;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.JavaDimension;
+import org.geysermc.geyser.level.block.BlockStateFlags;
 import org.geysermc.geyser.level.block.BlockStateValues;
 import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.level.chunk.ChunkScratch;
 import org.geysermc.geyser.level.chunk.GeyserChunkSection;
 import org.geysermc.geyser.level.chunk.bitarray.SingletonBitArray;
-import org.geysermc.geyser.registry.BlockRegistries;
+import org.geysermc.geyser.registry.type.BlockMappings;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.cache.ChunkCache;
+import org.geysermc.geyser.session.cache.SubChunkCache;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.translator.level.block.entity.BedrockOnlyBlockEntity;
 
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 import static org.geysermc.geyser.level.block.BlockStateValues.JAVA_AIR_ID;
 
 @UtilityClass
 public class ChunkUtils {
+    /**
+     * How many blocks of a section have to change at once before the section is translated again, instead of
+     * keeping each change until the client requests the section.
+     */
+    private static final int SECTION_REBUILD_THRESHOLD = 512;
+    private static final Set<UpdateBlockPacket.Flag> UPDATE_FLAGS = EnumSet.of(UpdateBlockPacket.Flag.NEIGHBORS, UpdateBlockPacket.Flag.NETWORK);
+    /**
+     * {@link #UPDATE_FLAGS} as sent over the network.
+     */
+    private static final int UPDATE_FLAGS_VALUE = 0b11;
+
     /**
      * An empty subchunk.
      */
@@ -108,6 +132,7 @@ public class ChunkUtils {
     public static void updateBlock(GeyserSession session, int blockState, Vector3i position) {
         updateBlockClientSide(session, blockState, position);
         session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
+        session.getCollisionManager().invalidateNeighbourhood();
     }
 
     /**
@@ -115,7 +140,7 @@ public class ChunkUtils {
      */
     public static void updateBlockClientSide(GeyserSession session, int blockState, Vector3i position) {
         // Checks for item frames so they aren't tripped up and removed
-        ItemFrameEntity itemFrameEntity = ItemFrameEntity.getItemFrameEntity(session, position);
+        ItemFrameEntity itemFrameEntity = session.getItemFrameCache().isEmpty() ? null : ItemFrameEntity.getItemFrameEntity(session, position);
         if (itemFrameEntity != null) {
             if (blockState == JAVA_AIR_ID) { // Item frame is still present and no block overrides that; refresh it
                 itemFrameEntity.updateBlock(true);
@@ -125,7 +150,7 @@ public class ChunkUtils {
             // Otherwise, let's still store our reference to the item frame, but let the new block take precedence for now
         }
 
-        if (BlockStateValues.getSkullVariant(blockState) == -1) {
+        if (!BlockStateFlags.isSkull(blockState)) {
             // Skull is gone
             session.getSkullCache().removeSkull(position);
         }
@@ -141,19 +166,156 @@ public class ChunkUtils {
             updateBlockPacket.setRuntimeId(blockId);
             updateBlockPacket.getFlags().add(UpdateBlockPacket.Flag.NEIGHBORS);
             updateBlockPacket.getFlags().add(UpdateBlockPacket.Flag.NETWORK);
-            session.sendUpstreamPacket(updateBlockPacket);
+            if (!session.getSubChunkCache().trackUpdate(updateBlockPacket)) {
+                session.sendUpstreamPacket(updateBlockPacket);
+            }
 
             UpdateBlockPacket waterPacket = new UpdateBlockPacket();
             waterPacket.setDataLayer(1);
             waterPacket.setBlockPosition(position);
-            if (BlockRegistries.WATERLOGGED.get().contains(blockState)) {
+            if (BlockStateFlags.isWaterlogged(blockState)) {
                 waterPacket.setRuntimeId(session.getBlockMappings().getBedrockWaterId());
             } else {
                 waterPacket.setRuntimeId(session.getBlockMappings().getBedrockAirId());
             }
-            session.sendUpstreamPacket(waterPacket);
+            if (!session.getSubChunkCache().trackUpdate(waterPacket)) {
+                session.sendUpstreamPacket(waterPacket);
+            }
+        }
+
+        updateBlockEntities(session, blockState, position);
+    }
+
+    /**
+     * Sends all block changes of one Java section to the Bedrock client in one packet, and adds them to the cache.
+     * If a position changes more than once, only the last change is used.
+     *
+     * @param chunkX the x coordinate of the section
+     * @param chunkY the y coordinate of the section
+     * @param chunkZ the z coordinate of the section
+     */
+    public static void updateSection(GeyserSession session, int chunkX, int chunkY, int chunkZ, BlockChangeEntry[] entries) {
+        // Go backwards, so the last change of each position is the one that is kept
+        BitSet changed = new BitSet(BlockStorage.SIZE);
+        List<BlockChangeEntry> changes = new ObjectArrayList<>(entries.length);
+        for (int i = entries.length - 1; i >= 0; i--) {
+            Vector3i position = entries[i].getPosition();
+            int index = ((position.getY() & 0xF) << 8) | ((position.getZ() & 0xF) << 4) | (position.getX() & 0xF);
+            if (!changed.get(index)) {
+                changed.set(index);
+                changes.add(entries[i]);
+            }
+        }
+
+        ChunkCache chunkCache = session.getChunkCache();
+        SubChunkCache subChunkCache = session.getSubChunkCache();
+        session.getCollisionManager().invalidateNeighbourhood();
+        boolean cached = !session.getGeyser().getWorldManager().hasOwnChunkCache();
+        // If the client has not requested this section yet, translating it again is cheaper than keeping every change
+        boolean rebuild = cached && changes.size() >= SECTION_REBUILD_THRESHOLD && subChunkCache.isWaiting(chunkX, chunkY, chunkZ);
+        boolean checkItemFrames = !session.getItemFrameCache().isEmpty();
+
+        UpdateSubChunkBlocksPacket updatePacket = new UpdateSubChunkBlocksPacket();
+        // The base block position of the sub-chunk; entries use absolute positions
+        updatePacket.setChunkX(chunkX << 4);
+        updatePacket.setChunkY(chunkY << 4);
+        updatePacket.setChunkZ(chunkZ << 4);
+        // Block entities are only updated after the blocks they belong to have been sent
+        List<BlockChangeEntry> blockEntityChanges = new ObjectArrayList<>();
+
+        for (BlockChangeEntry change : changes) {
+            Vector3i position = change.getPosition();
+            int blockState = change.getBlock();
+            // Without our own cache, we don't know if there was water here before
+            boolean wasWaterlogged = !cached || BlockStateFlags.isWaterlogged(
+                    chunkCache.getBlockAt(position.getX(), position.getY(), position.getZ()));
+            chunkCache.updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
+
+            if (checkItemFrames) {
+                ItemFrameEntity itemFrameEntity = ItemFrameEntity.getItemFrameEntity(session, position);
+                if (itemFrameEntity != null && blockState == JAVA_AIR_ID) {
+                    itemFrameEntity.updateBlock(true);
+                    continue;
+                }
+            }
+
+            if (!BlockStateFlags.isSkull(blockState)) {
+                session.getSkullCache().removeSkull(position);
+            }
+
+            if (!rebuild && !BlockStateValues.isMovingPiston(blockState)) {
+                int blockId = session.getBlockMappings().getBedrockBlockId(blockState);
+                boolean waterlogged = BlockStateFlags.isWaterlogged(blockState);
+                int waterId = waterlogged ? session.getBlockMappings().getBedrockWaterId() : session.getBlockMappings().getBedrockAirId();
+
+                boolean withheld = false;
+                if (subChunkCache.isEnabled()) {
+                    // Changes have to be remembered in case the client requests this section (again)
+                    UpdateBlockPacket blockPacket = new UpdateBlockPacket();
+                    blockPacket.setDataLayer(0);
+                    blockPacket.setBlockPosition(position);
+                    blockPacket.setRuntimeId(blockId);
+                    blockPacket.getFlags().addAll(UPDATE_FLAGS);
+                    UpdateBlockPacket waterPacket = new UpdateBlockPacket();
+                    waterPacket.setDataLayer(1);
+                    waterPacket.setBlockPosition(position);
+                    waterPacket.setRuntimeId(waterId);
+                    withheld = subChunkCache.trackUpdate(blockPacket) | subChunkCache.trackUpdate(waterPacket);
+                }
+
+                if (!withheld) {
+                    updatePacket.getStandardBlocks().add(new com.nukkitx.protocol.bedrock.data.BlockChangeEntry(
+                            position, blockId, UPDATE_FLAGS_VALUE, -1, com.nukkitx.protocol.bedrock.data.BlockChangeEntry.MessageType.NONE));
+                    if (waterlogged || wasWaterlogged) {
+                        updatePacket.getExtraBlocks().add(new com.nukkitx.protocol.bedrock.data.BlockChangeEntry(
+                                position, waterId, UPDATE_FLAGS_VALUE, -1, com.nukkitx.protocol.bedrock.data.BlockChangeEntry.MessageType.NONE));
+                    }
+                }
+            }
+
+            blockEntityChanges.add(change);
+        }
+
+        if (rebuild) {
+            subChunkCache.replaceSection(chunkX, chunkY, chunkZ, translateSection(session, chunkX, chunkY, chunkZ));
+        } else if (!updatePacket.getStandardBlocks().isEmpty()) {
+            session.sendUpstreamPacket(updatePacket);
         }
 
+        for (BlockChangeEntry change : blockEntityChanges) {
+            updateBlockEntities(session, change.getBlock(), change.getPosition());
+        }
+    }
+
+    /**
+     * Translates a section from the chunk cache. Bedrock-only block entities are not included.
+     *
+     * @return the serialized section, or null if it is empty
+     */
+    private static byte[] translateSection(GeyserSession session, int chunkX, int chunkY, int chunkZ) {
+        ChunkCache chunkCache = session.getChunkCache();
+        BlockMappings mappings = session.getBlockMappings();
+        GeyserChunkSection section = new GeyserChunkSection(mappings.getBedrockAirId());
+        boolean empty = true;
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int blockState = chunkCache.getBlockAt((chunkX << 4) + x, (chunkY << 4) + y, (chunkZ << 4) + z);
+                    if (blockState == JAVA_AIR_ID) {
+                        continue;
+                    }
+                    empty = false;
+                    section.setFullBlock(x, y, z, 0, mappings.getBedrockBlockId(blockState));
+                    if (BlockStateFlags.isWaterlogged(blockState)) {
+                        section.setFullBlock(x, y, z, 1, mappings.getBedrockWaterId());
+                    }
+                }
+            }
+        }
+        return empty ? null : ChunkScratch.get().serialize(section);
+    }
+
+    private static void updateBlockEntities(GeyserSession session, int blockState, Vector3i position) {
         BlockStateValues.getLecternBookStates().handleBlockChange(session, blockState, position);
 
         // Iterates through all Bedrock-only block entity translators and determines if a manual block entity packet
@@ -171,6 +333,9 @@ public class ChunkUtils {
         BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
         int bedrockSubChunkCount = bedrockDimension.height() >> 4;
 
+        boolean blobCacheEnabled = session.getBlobCache().isEnabled();
+
+        byte[] biomeBlob = null;
         byte[] payload;
 
         // Allocate output buffer
@@ -181,6 +346,12 @@ public class ChunkUtils {
                 byteBuf.writeByte((127 << 1) | 1);
             }
 
+            if (blobCacheEnabled) {
+                // Biome data is sent as a blob when the client cache is in use
+                biomeBlob = new byte[byteBuf.readableBytes()];
+                byteBuf.readBytes(biomeBlob);
+            }
+
             byteBuf.writeByte(0); // Border blocks - Edu edition only
 
             payload = new byte[byteBuf.readableBytes()];
@@ -194,7 +365,10 @@ public class ChunkUtils {
         data.setChunkZ(chunkZ);
         data.setSubChunksLength(0);
         data.setData(payload);
-        data.setCachingEnabled(false);
+        data.setCachingEnabled(blobCacheEnabled);
+        if (blobCacheEnabled) {
+            session.getBlobCache().addBlobs(Collections.singletonList(biomeBlob), data.getBlobIds());
+        }
         session.sendUpstreamPacket(data);
 
         if (forceUpdate) {
@@ -224,6 +398,7 @@ public class ChunkUtils {
     public static void loadDimension(GeyserSession session) {
         JavaDimension dimension = session.getDimensions().get(session.getDimension());
         session.setDimensionType(dimension);
+        session.getCollisionManager().invalidateNeighbourhood();
         int minY = dimension.minY();
         int maxY = dimension.maxY();
 
@@ -74,6 +74,10 @@ public class DimensionUtils {
         session.getLodestoneCache().clear();
         session.getPistonCache().clear();
         session.getSkullCache().clear();
+        session.getSubChunkCache().clear();
+        // Forget what the client knows about maps, so their full contents are sent again
+        session.getStoredMaps().clear();
+        session.getMapCanvases().clear();
 
         if (session.getServerRenderDistance() > 47 && !session.isEmulatePost1_13Logic()) {
             // The server-sided view distance wasn't a thing until Minecraft Java 1.14
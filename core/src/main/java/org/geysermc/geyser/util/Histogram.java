@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram with fixed buckets, for statistics that are shown in dumps.
+ */
+public final class Histogram {
+    /**
+     * The inclusive upper bound of each bucket. Values above the last bound go into an extra bucket.
+     */
+    private final long[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param bounds the inclusive upper bound of each bucket, in ascending order
+     */
+    public Histogram(long... bounds) {
+        this.bounds = bounds;
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return a histogram whose buckets double in size, starting at 1
+     */
+    public static Histogram exponential(int bucketCount) {
+        long[] bounds = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            bounds[i] = 1L << i;
+        }
+        return new Histogram(bounds);
+    }
+
+    public void record(long value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMean() {
+        long count = this.count.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket that contains the given percentile, or the maximum value if that is the
+     * last bucket. This is an estimate that is never below the actual value.
+     */
+    public long getPercentile(double percentile) {
+        long count = this.count.sum();
+        if (count == 0) {
+            return 0;
+        }
+
+        // The rank of the value at this percentile, starting at 1
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(bounds[i], getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return how many values were recorded in each bucket, by the label of the bucket
+     */
+    public Map<String, Long> getBuckets() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < bounds.length; i++) {
+            result.put("<=" + bounds[i], buckets[i].sum());
+        }
+        result.put(">" + bounds[bounds.length - 1], buckets[bounds.length].sum());
+        return result;
+    }
+}
@@ -51,16 +51,16 @@ import org.geysermc.geyser.session.auth.BedrockClientData;
 import org.geysermc.geyser.text.ChatColor;
 import org.geysermc.geyser.text.GeyserLocale;
 
+import javax.annotation.Nullable;
 import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.net.URI;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.PublicKey;
 import java.security.interfaces.ECPublicKey;
-import java.security.spec.ECGenParameterSpec;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
 public class LoginEncryptionUtils {
@@ -68,6 +68,13 @@ public class LoginEncryptionUtils {
 
     private static boolean HAS_SENT_ENCRYPTION_MESSAGE = false;
 
+    /**
+     * The certificate signed by Mojang is the same for every player until it expires, so the key it vouches for only
+     * has to be verified once. Keyed by the certificate JWT.
+     */
+    private static final Map<String, VerifiedCertificate> VERIFIED_CERTIFICATES = new ConcurrentHashMap<>();
+    private static final int MAX_VERIFIED_CERTIFICATES = 16;
+
     private static boolean validateChainData(JsonNode data) throws Exception {
         if (data.size() != 3) {
             return false;
@@ -78,7 +85,20 @@ public class LoginEncryptionUtils {
         Iterator<JsonNode> iterator = data.iterator();
         while (iterator.hasNext()) {
             JsonNode node = iterator.next();
-            JWSObject jwt = JWSObject.parse(node.asText());
+            String token = node.asText();
+
+            boolean signedByMojang = lastKey != null && lastKey.equals(EncryptionUtils.getMojangPublicKey());
+            if (signedByMojang) {
+                VerifiedCertificate certificate = VERIFIED_CERTIFICATES.get(token);
+                if (certificate != null && certificate.expiresAt() > System.currentTimeMillis()) {
+                    // Exactly this certificate has been verified before
+                    mojangSigned = true;
+                    lastKey = certificate.identityPublicKey();
+                    continue;
+                }
+            }
+
+            JWSObject jwt = JWSObject.parse(token);
 
             // x509 cert is expected in every claim
             URI x5u = jwt.getHeader().getX509CertURL();
@@ -102,7 +122,7 @@ public class LoginEncryptionUtils {
                 return !iterator.hasNext();
             }
 
-            if (lastKey.equals(EncryptionUtils.getMojangPublicKey())) {
+            if (signedByMojang || lastKey.equals(EncryptionUtils.getMojangPublicKey())) {
                 mojangSigned = true;
             }
 
@@ -112,12 +132,34 @@ public class LoginEncryptionUtils {
             Object identityPublicKey = ((JSONObject) payload).get("identityPublicKey");
             Preconditions.checkArgument(identityPublicKey instanceof String, "identityPublicKey node is missing in chain");
             lastKey = EncryptionUtils.generateKey((String) identityPublicKey);
+
+            if (mojangSigned && ((JSONObject) payload).get("exp") instanceof Number expiry) {
+                cacheCertificate(token, lastKey, expiry.longValue() * 1000);
+            }
         }
 
         return mojangSigned;
     }
 
-    public static void encryptPlayerConnection(GeyserSession session, LoginPacket loginPacket) {
+    private static void cacheCertificate(String token, ECPublicKey identityPublicKey, long expiresAt) {
+        if (VERIFIED_CERTIFICATES.size() >= MAX_VERIFIED_CERTIFICATES) {
+            long now = System.currentTimeMillis();
+            VERIFIED_CERTIFICATES.values().removeIf(certificate -> certificate.expiresAt() <= now);
+            if (VERIFIED_CERTIFICATES.size() >= MAX_VERIFIED_CERTIFICATES) {
+                VERIFIED_CERTIFICATES.clear();
+            }
+        }
+        VERIFIED_CERTIFICATES.put(token, new VerifiedCertificate(identityPublicKey, expiresAt));
+    }
+
+    /**
+     * Verifies the certificate chain and client data of a login and prepares the encryption handshake. This is slow, so
+     * it can be called from any thread - nothing is changed on the session until {@link #applyLogin(GeyserSession, LoginData)}.
+     *
+     * @return the login data, or null if the chain is invalid and proxy connections are not allowed
+     */
+    @Nullable
+    public static LoginData verifyLogin(GeyserImpl geyser, LoginPacket loginPacket) throws Exception {
         JsonNode certData;
         try {
             certData = JSON_MAPPER.readTree(loginPacket.getChainData().toByteArray());
@@ -130,84 +172,107 @@ public class LoginEncryptionUtils {
             throw new RuntimeException("Certificate data is not valid");
         }
 
-        encryptConnectionWithCert(session, loginPacket.getSkinData().toString(), certChainData);
-    }
-
-    private static void encryptConnectionWithCert(GeyserSession session, String clientData, JsonNode certChainData) {
-        try {
-            GeyserImpl geyser = session.getGeyser();
-
-            boolean validChain = validateChainData(certChainData);
+        String clientData = loginPacket.getSkinData().toString();
+        boolean validChain = validateChainData(certChainData);
 
-            geyser.getLogger().debug(String.format("Is player data valid? %s", validChain));
+        geyser.getLogger().debug(String.format("Is player data valid? %s", validChain));
 
-            if (!validChain && !session.getGeyser().getConfig().isEnableProxyConnections()) {
-                session.disconnect(GeyserLocale.getLocaleStringLog("geyser.network.remote.invalid_xbox_account"));
-                return;
-            }
-            JWSObject jwt = JWSObject.parse(certChainData.get(certChainData.size() - 1).asText());
-            JsonNode payload = JSON_MAPPER.readTree(jwt.getPayload().toBytes());
-
-            if (payload.get("extraData").getNodeType() != JsonNodeType.OBJECT) {
-                throw new RuntimeException("AuthData was not found!");
-            }
+        if (!validChain && !geyser.getConfig().isEnableProxyConnections()) {
+            return null;
+        }
+        JWSObject jwt = JWSObject.parse(certChainData.get(certChainData.size() - 1).asText());
+        JsonNode payload = JSON_MAPPER.readTree(jwt.getPayload().toBytes());
 
-            JsonNode extraData = payload.get("extraData");
-            session.setAuthenticationData(new AuthData(
-                    extraData.get("displayName").asText(),
-                    UUID.fromString(extraData.get("identity").asText()),
-                    extraData.get("XUID").asText()
-            ));
+        if (payload.get("extraData").getNodeType() != JsonNodeType.OBJECT) {
+            throw new RuntimeException("AuthData was not found!");
+        }
 
-            session.setCertChainData(certChainData);
+        JsonNode extraData = payload.get("extraData");
+        AuthData authData = new AuthData(
+                extraData.get("displayName").asText(),
+                UUID.fromString(extraData.get("identity").asText()),
+                extraData.get("XUID").asText()
+        );
 
-            if (payload.get("identityPublicKey").getNodeType() != JsonNodeType.STRING) {
-                throw new RuntimeException("Identity Public Key was not found!");
-            }
+        if (payload.get("identityPublicKey").getNodeType() != JsonNodeType.STRING) {
+            throw new RuntimeException("Identity Public Key was not found!");
+        }
 
-            ECPublicKey identityPublicKey = EncryptionUtils.generateKey(payload.get("identityPublicKey").textValue());
-            JWSObject clientJwt = JWSObject.parse(clientData);
-            EncryptionUtils.verifyJwt(clientJwt, identityPublicKey);
-
-            JsonNode clientDataJson = JSON_MAPPER.readTree(clientJwt.getPayload().toBytes());
-            BedrockClientData data = JSON_MAPPER.convertValue(clientDataJson, BedrockClientData.class);
-            data.setOriginalString(clientData);
-            session.setClientData(data);
-
-            if (EncryptionUtils.canUseEncryption()) {
-                try {
-                    LoginEncryptionUtils.startEncryptionHandshake(session, identityPublicKey);
-                } catch (Throwable e) {
-                    // An error can be thrown on older Java 8 versions about an invalid key
-                    if (geyser.getConfig().isDebugMode()) {
-                        e.printStackTrace();
-                    }
-
-                    sendEncryptionFailedMessage(geyser);
+        ECPublicKey identityPublicKey = EncryptionUtils.generateKey(payload.get("identityPublicKey").textValue());
+        JWSObject clientJwt = JWSObject.parse(clientData);
+        EncryptionUtils.verifyJwt(clientJwt, identityPublicKey);
+
+        JsonNode clientDataJson = JSON_MAPPER.readTree(clientJwt.getPayload().toBytes());
+        BedrockClientData data = JSON_MAPPER.convertValue(clientDataJson, BedrockClientData.class);
+        data.setOriginalString(clientData);
+
+        SecretKey encryptionKey = null;
+        String handshakeJwt = null;
+        if (EncryptionUtils.canUseEncryption()) {
+            try {
+                KeyPair serverKeyPair = geyser.getLoginCryptoService().takeKeyPair();
+                byte[] token = EncryptionUtils.generateRandomToken();
+                encryptionKey = EncryptionUtils.getSecretKey(serverKeyPair.getPrivate(), identityPublicKey, token);
+                handshakeJwt = EncryptionUtils.createHandshakeJwt(serverKeyPair, token).serialize();
+            } catch (Throwable e) {
+                // An error can be thrown on older Java 8 versions about an invalid key
+                if (geyser.getConfig().isDebugMode()) {
+                    e.printStackTrace();
                 }
-            } else {
-                sendEncryptionFailedMessage(geyser);
+                encryptionKey = null;
             }
-        } catch (Exception ex) {
-            session.disconnect("disconnectionScreen.internalError.cantConnect");
-            throw new RuntimeException("Unable to complete login", ex);
         }
+
+        return new LoginData(certChainData, authData, data, encryptionKey, handshakeJwt);
     }
 
-    private static void startEncryptionHandshake(GeyserSession session, PublicKey key) throws Exception {
-        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
-        generator.initialize(new ECGenParameterSpec("secp384r1"));
-        KeyPair serverKeyPair = generator.generateKeyPair();
+    /**
+     * Stores the verified login on the session and starts encryption. Must be called on the session's thread.
+     *
+     * @param loginData the result of {@link #verifyLogin(GeyserImpl, LoginPacket)}
+     */
+    public static void applyLogin(GeyserSession session, @Nullable LoginData loginData) {
+        if (loginData == null) {
+            session.disconnect(GeyserLocale.getLocaleStringLog("geyser.network.remote.invalid_xbox_account"));
+            return;
+        }
+
+        session.setAuthenticationData(loginData.authData());
+        session.setCertChainData(loginData.certChainData());
+        session.setClientData(loginData.clientData());
 
-        byte[] token = EncryptionUtils.generateRandomToken();
-        SecretKey encryptionKey = EncryptionUtils.getSecretKey(serverKeyPair.getPrivate(), key, token);
-        session.getUpstream().getSession().enableEncryption(encryptionKey);
+        if (loginData.encryptionKey() == null) {
+            sendEncryptionFailedMessage(session.getGeyser());
+            return;
+        }
+
+        try {
+            session.getUpstream().getSession().enableEncryption(loginData.encryptionKey());
+        } catch (Throwable e) {
+            if (session.getGeyser().getConfig().isDebugMode()) {
+                e.printStackTrace();
+            }
+            sendEncryptionFailedMessage(session.getGeyser());
+            return;
+        }
 
         ServerToClientHandshakePacket packet = new ServerToClientHandshakePacket();
-        packet.setJwt(EncryptionUtils.createHandshakeJwt(serverKeyPair, token).serialize());
+        packet.setJwt(loginData.handshakeJwt());
         session.sendUpstreamPacketImmediately(packet);
     }
 
+    /**
+     * Everything taken from a login packet, so it can be verified away from the session's thread.
+     *
+     * @param encryptionKey null if encryption could not be set up
+     */
+    public record LoginData(JsonNode certChainData, AuthData authData, BedrockClientData clientData,
+                            @Nullable SecretKey encryptionKey, @Nullable String handshakeJwt) {
+    }
+
+    private record VerifiedCertificate(ECPublicKey identityPublicKey, long expiresAt) {
+    }
+
     private static void sendEncryptionFailedMessage(GeyserImpl geyser) {
         if (!HAS_SENT_ENCRYPTION_MESSAGE) {
             geyser.getLogger().warning(GeyserLocale.getLocaleStringLog("geyser.network.encryption.line_1"));
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util.collection;
+
+import com.nukkitx.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import org.geysermc.geyser.util.MathUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Map of block positions that also groups its entries by chunk, so everything in one chunk can be found or removed
+ * without going through the whole map.
+ */
+public class ChunkPositionMap<V> {
+    private final Map<Vector3i, V> values = new Object2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<Map<Vector3i, V>> chunks = new Long2ObjectOpenHashMap<>();
+
+    public V get(Vector3i position) {
+        return values.get(position);
+    }
+
+    public boolean containsKey(Vector3i position) {
+        return values.containsKey(position);
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public V put(Vector3i position, V value) {
+        long chunkPosition = chunkPosition(position);
+        Map<Vector3i, V> chunk = chunks.get(chunkPosition);
+        if (chunk == null) {
+            chunk = new Object2ObjectOpenHashMap<>();
+            chunks.put(chunkPosition, chunk);
+        }
+        chunk.put(position, value);
+        return values.put(position, value);
+    }
+
+    public V remove(Vector3i position) {
+        if (!values.containsKey(position)) {
+            return null;
+        }
+        removeFromChunk(position);
+        return values.remove(position);
+    }
+
+    /**
+     * Removes the entry only if the position is mapped to this value.
+     */
+    public boolean remove(Vector3i position, V value) {
+        if (values.remove(position, value)) {
+            removeFromChunk(position);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the entries in this chunk. The returned map must not be changed.
+     */
+    public Map<Vector3i, V> getChunk(int chunkX, int chunkZ) {
+        Map<Vector3i, V> chunk = chunks.get(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        return chunk == null ? Collections.emptyMap() : chunk;
+    }
+
+    /**
+     * Removes all entries in this chunk.
+     *
+     * @return the values that were removed
+     */
+    public Collection<V> removeChunk(int chunkX, int chunkZ) {
+        Map<Vector3i, V> chunk = chunks.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        if (chunk == null) {
+            return Collections.emptyList();
+        }
+        for (Vector3i position : chunk.keySet()) {
+            values.remove(position);
+        }
+        return chunk.values();
+    }
+
+    public void clear() {
+        values.clear();
+        chunks.clear();
+    }
+
+    private void removeFromChunk(Vector3i position) {
+        long chunkPosition = chunkPosition(position);
+        Map<Vector3i, V> chunk = chunks.get(chunkPosition);
+        if (chunk != null) {
+            chunk.remove(position);
+            if (chunk.isEmpty()) {
+                chunks.remove(chunkPosition);
+            }
+        }
+    }
+
+    private static long chunkPosition(Vector3i position) {
+        return MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4);
+    }
+}
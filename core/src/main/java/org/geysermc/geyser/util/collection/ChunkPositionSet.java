@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util.collection;
+
+import com.nukkitx.math.vector.Vector3i;
+
+/**
+ * Set of block positions that also groups its entries by chunk, so a whole chunk can be removed at once.
+ */
+public class ChunkPositionSet {
+    private final ChunkPositionMap<Boolean> map = new ChunkPositionMap<>();
+
+    public boolean contains(Vector3i position) {
+        return map.containsKey(position);
+    }
+
+    public boolean add(Vector3i position) {
+        return map.put(position, Boolean.TRUE) == null;
+    }
+
+    public boolean remove(Vector3i position) {
+        return map.remove(position) != null;
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public void removeChunk(int chunkX, int chunkZ) {
+        map.removeChunk(chunkX, chunkZ);
+    }
+
+    public void clear() {
+        map.clear();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+package org.geysermc.geyser.util.collection;
+
+import it.unimi.dsi.fastutil.ints.AbstractInt2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Map that reads through to a shared base map and keeps its own changes separately, so the base map can be used by
+ * many owners without being copied. The base map must not change while this map is in use.
+ */
+public class Int2ObjectOverlayMap<V> extends AbstractInt2ObjectMap<V> {
+    private final Int2ObjectMap<V> base;
+    private final Int2ObjectMap<V> overlay = new Int2ObjectOpenHashMap<>();
+    /**
+     * Keys of the base map that have been removed from this map, and are not in the overlay.
+     */
+    private final IntSet removed = new IntOpenHashSet();
+
+    public Int2ObjectOverlayMap(Int2ObjectMap<V> base) {
+        this.base = base;
+    }
+
+    @Override
+    public int size() {
+        int size = base.size() - removed.size();
+        for (Int2ObjectMap.Entry<V> entry : overlay.int2ObjectEntrySet()) {
+            if (!base.containsKey(entry.getIntKey())) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public V get(int key) {
+        V value = overlay.get(key);
+        if (value != null || overlay.containsKey(key)) {
+            return value;
+        }
+        return containsBaseKey(key) ? base.get(key) : defRetValue;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return overlay.containsKey(key) || containsBaseKey(key);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        V previous = get(key);
+        removed.remove(key);
+        overlay.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public V remove(int key) {
+        if (overlay.containsKey(key)) {
+            if (base.containsKey(key)) {
+                removed.add(key);
+            }
+            return overlay.remove(key);
+        }
+        if (containsBaseKey(key)) {
+            removed.add(key);
+            return base.get(key);
+        }
+        return defRetValue;
+    }
+
+    @Override
+    public void clear() {
+        overlay.clear();
+        removed.addAll(base.keySet());
+    }
+
+    /**
+     * @return if the key is in the base map and has not been removed from this map
+     */
+    private boolean containsBaseKey(int key) {
+        return base.containsKey(key) && !removed.contains(key);
+    }
+
+    @Override
+    public ObjectSet<Int2ObjectMap.Entry<V>> int2ObjectEntrySet() {
+        return new AbstractObjectSet<>() {
+            @Override
+            public ObjectIterator<Int2ObjectMap.Entry<V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return Int2ObjectOverlayMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Iterates over all changed entries, then over every base entry that has not been replaced or removed.
+     */
+    private class EntryIterator implements ObjectIterator<Int2ObjectMap.Entry<V>> {
+        private final ObjectIterator<Int2ObjectMap.Entry<V>> overlayIterator = overlay.int2ObjectEntrySet().iterator();
+        private final ObjectIterator<Int2ObjectMap.Entry<V>> baseIterator = base.int2ObjectEntrySet().iterator();
+        private Int2ObjectMap.Entry<V> next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (overlayIterator.hasNext()) {
+                next = overlayIterator.next();
+                return true;
+            }
+            while (baseIterator.hasNext()) {
+                Int2ObjectMap.Entry<V> entry = baseIterator.next();
+                int key = entry.getIntKey();
+                if (!overlay.containsKey(key) && !removed.contains(key)) {
+                    next = entry;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Int2ObjectMap.Entry<V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Int2ObjectMap.Entry<V> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class MapCanvasTest {
+    private static final int SIZE = MapCanvas.SIZE;
+
+    @Test
+    public void testUpdate() {
+        byte[] colorIds = randomColors(1);
+        MapCanvas canvas = MapCanvas.of(1, colorIds.clone());
+
+        byte[] area = new byte[] {4, 5, 6, 7, 8, 9};
+        MapCanvas updated = canvas.update(1, 10, 20, 3, 2, area);
+        Assert.assertNotNull(updated);
+
+        int[] expected = canvas.getColors().clone();
+        for (int row = 0; row < 2; row++) {
+            for (int column = 0; column < 3; column++) {
+                expected[(20 + row) * SIZE + 10 + column] = MapColor.toARGB(area[row * 3 + column]);
+            }
+        }
+        Assert.assertArrayEquals(expected, updated.getColors());
+        // Canvases are never changed
+        Assert.assertArrayEquals(MapCanvas.of(1, colorIds).getColors(), canvas.getColors());
+    }
+
+    @Test
+    public void testUpdateBounds() {
+        MapCanvas canvas = MapCanvas.of(2, randomColors(2));
+
+        // The whole map, and areas touching each edge
+        Assert.assertNotNull(canvas.update(2, 0, 0, SIZE, SIZE, new byte[SIZE * SIZE]));
+        Assert.assertNotNull(canvas.update(2, SIZE - 1, SIZE - 1, 1, 1, new byte[1]));
+        Assert.assertNotNull(canvas.update(2, 0, 5, 0, 0, new byte[0]));
+
+        Assert.assertNull(canvas.update(2, -1, 0, 1, 1, new byte[1]));
+        Assert.assertNull(canvas.update(2, 0, -1, 1, 1, new byte[1]));
+        Assert.assertNull(canvas.update(2, SIZE - 1, 0, 2, 1, new byte[2]));
+        Assert.assertNull(canvas.update(2, 0, SIZE - 1, 1, 2, new byte[2]));
+        Assert.assertNull(canvas.update(2, 0, 0, -1, 1, new byte[0]));
+        // Not enough colors for the area
+        Assert.assertNull(canvas.update(2, 0, 0, 2, 2, new byte[3]));
+    }
+
+    @Test
+    public void testChangedArea() {
+        byte[] colorIds = randomColors(3);
+        MapCanvas canvas = MapCanvas.of(3, colorIds);
+        Assert.assertNull(canvas.changedArea(canvas));
+        Assert.assertNull(canvas.changedArea(MapCanvas.of(3, colorIds.clone())));
+
+        // Two changed pixels span the area between them
+        byte[] changed = colorIds.clone();
+        changed[7 * SIZE + 30]++;
+        changed[50 * SIZE + 2]++;
+        Assert.assertArrayEquals(new int[] {2, 7, 29, 44}, canvas.changedArea(MapCanvas.of(3, changed)));
+
+        // The corners of the map
+        changed = colorIds.clone();
+        changed[0]++;
+        changed[SIZE * SIZE - 1]++;
+        Assert.assertArrayEquals(new int[] {0, 0, SIZE, SIZE}, canvas.changedArea(MapCanvas.of(3, changed)));
+
+        changed = colorIds.clone();
+        changed[SIZE * SIZE - 1]++;
+        Assert.assertArrayEquals(new int[] {SIZE - 1, SIZE - 1, 1, 1}, canvas.changedArea(MapCanvas.of(3, changed)));
+    }
+
+    @Test
+    public void testChangedAreaOfUpdate() {
+        MapCanvas canvas = MapCanvas.of(4, randomColors(4));
+        byte[] area = new byte[4 * 3];
+        // Colors that are different from every random one
+        Arrays.fill(area, (byte) -1);
+        MapCanvas updated = canvas.update(4, 60, 100, 4, 3, area);
+        Assert.assertArrayEquals(new int[] {60, 100, 4, 3}, canvas.changedArea(updated));
+        Assert.assertArrayEquals(new int[] {60, 100, 4, 3}, updated.changedArea(canvas));
+    }
+
+    private static byte[] randomColors(long seed) {
+        byte[] colorIds = new byte[SIZE * SIZE];
+        Random random = new Random(seed);
+        for (int i = 0; i < colorIds.length; i++) {
+            colorIds[i] = (byte) random.nextInt(100);
+        }
+        return colorIds;
+    }
+}
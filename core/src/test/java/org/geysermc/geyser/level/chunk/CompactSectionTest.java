@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class CompactSectionTest {
+
+    @Test
+    public void testResize() {
+        ChunkMemoryPool pool = new ChunkMemoryPool(0);
+        CompactSection section = CompactSection.of(pool, 0);
+        int[] expected = new int[CompactSection.SIZE];
+        Random random = new Random(0);
+
+        // Goes through every entry size, up to storing block states directly
+        for (int blockState = 1; blockState <= 300; blockState++) {
+            for (int i = 0; i < 20; i++) {
+                int index = random.nextInt(CompactSection.SIZE);
+                section.set(index & 0xF, index >> 8, (index >> 4) & 0xF, blockState);
+                expected[index] = blockState;
+            }
+            assertBlocks(expected, section);
+        }
+
+        // Large block states only fit once stored directly
+        section.set(1, 2, 3, 20000);
+        expected[(2 << 8) | (3 << 4) | 1] = 20000;
+        assertBlocks(expected, section);
+    }
+
+    @Test
+    public void testCopy() {
+        ChunkMemoryPool pool = new ChunkMemoryPool(0);
+        CompactSection section = CompactSection.of(pool, 7);
+        section.set(0, 0, 0, 8);
+        CompactSection copy = section.copy();
+        copy.set(0, 0, 0, 9);
+        copy.set(15, 15, 15, 10);
+
+        Assert.assertEquals(8, section.get(0, 0, 0));
+        Assert.assertEquals(7, section.get(15, 15, 15));
+        Assert.assertEquals(9, copy.get(0, 0, 0));
+        Assert.assertEquals(10, copy.get(15, 15, 15));
+    }
+
+    @Test
+    public void testPoolAccounting() {
+        ChunkMemoryPool pool = new ChunkMemoryPool(0);
+        CompactSection section = CompactSection.of(pool, 0);
+        // A single block section has no data
+        Assert.assertEquals(0, pool.getUsedBytes());
+
+        section.set(0, 0, 0, 1);
+        Assert.assertEquals(CompactSection.SIZE / 8, pool.getUsedBytes()); // 1 bit per entry
+
+        for (int blockState = 2; blockState < 5; blockState++) {
+            section.set(blockState, 0, 0, blockState);
+        }
+        // The smaller arrays were given back while resizing
+        Assert.assertEquals(CompactSection.SIZE * 4 / 8, pool.getUsedBytes());
+        Assert.assertEquals(CompactSection.SIZE * (1 + 2) / 8, pool.getPooledBytes());
+
+        CompactSection copy = section.copy();
+        Assert.assertEquals(CompactSection.SIZE * 4 * 2 / 8, pool.getUsedBytes());
+
+        section.free();
+        copy.free();
+        Assert.assertEquals(0, pool.getUsedBytes());
+        Assert.assertEquals(CompactSection.SIZE * (1 + 2 + 4 + 4) / 8, pool.getPooledBytes());
+
+        // Freed arrays are reused
+        CompactSection reused = CompactSection.of(pool, 0);
+        reused.set(0, 0, 0, 1);
+        Assert.assertEquals(CompactSection.SIZE / 8, pool.getUsedBytes());
+        Assert.assertEquals(CompactSection.SIZE * (2 + 4 + 4) / 8, pool.getPooledBytes());
+    }
+
+    @Test
+    public void testBudget() {
+        ChunkMemoryPool pool = new ChunkMemoryPool(1);
+        long[][] arrays = new long[17][];
+        for (int i = 0; i < arrays.length; i++) {
+            Assert.assertFalse(pool.isOverBudget());
+            // 64 kilobytes each
+            arrays[i] = pool.allocate(8192);
+        }
+        Assert.assertTrue(pool.isOverBudget());
+
+        pool.free(arrays[0]);
+        Assert.assertFalse(pool.isOverBudget());
+        Assert.assertFalse(new ChunkMemoryPool(0).isOverBudget());
+    }
+
+    private static void assertBlocks(int[] expected, CompactSection section) {
+        for (int index = 0; index < CompactSection.SIZE; index++) {
+            Assert.assertEquals(expected[index], section.get(index & 0xF, index >> 8, (index >> 4) & 0xF));
+        }
+    }
+}
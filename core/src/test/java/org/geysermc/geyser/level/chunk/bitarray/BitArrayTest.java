@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk.bitarray;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class BitArrayTest {
+    private static final int SIZE = 4096;
+
+    @Test
+    public void testSetAllFromYZX() {
+        Random random = new Random(0);
+        for (BitArrayVersion version : BitArrayVersion.values()) {
+            // Palette sizes of Java sections, and the bits of the global palette
+            for (int javaBits : new int[] {1, 2, 3, 4, 5, 6, 7, 8, 15}) {
+                int valueBits = Math.min(javaBits, version.bits);
+                int[] yzxValues = new int[SIZE];
+                for (int i = 0; i < SIZE; i++) {
+                    yzxValues[i] = valueBits == 0 ? 0 : random.nextInt(1 << valueBits);
+                }
+
+                BitArray expected = create(version);
+                for (int yzx = 0; yzx < SIZE; yzx++) {
+                    if (version != BitArrayVersion.V0) {
+                        expected.set(toXZY(yzx), yzxValues[yzx]);
+                    }
+                }
+
+                BitArray actual = create(version);
+                actual.setAllFromYZX(pack(yzxValues, javaBits), javaBits);
+                Assert.assertArrayEquals(version + " from " + javaBits + " bits", expected.getWords(), actual.getWords());
+                for (int xzy = 0; xzy < SIZE; xzy++) {
+                    Assert.assertEquals(expected.get(xzy), actual.get(xzy));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWaterloggedLayer() {
+        Random random = new Random(1);
+        BitSet waterloggedIds = new BitSet();
+        waterloggedIds.set(1);
+        waterloggedIds.set(5);
+
+        for (BitArrayVersion version : new BitArrayVersion[] {BitArrayVersion.V4, BitArrayVersion.V3, BitArrayVersion.V8}) {
+            int[] yzxValues = new int[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                yzxValues[i] = random.nextInt(8);
+            }
+
+            BitArray expected = BitArrayVersion.V1.createArray(SIZE);
+            for (int yzx = 0; yzx < SIZE; yzx++) {
+                expected.set(toXZY(yzx), waterloggedIds.get(yzxValues[yzx]) ? 1 : 0);
+            }
+
+            int[] layer1Words = new int[BitArrayVersion.V1.getWordsForSize(SIZE)];
+            create(version).setAllFromYZX(pack(yzxValues, 4), 4, waterloggedIds, layer1Words);
+            Assert.assertArrayEquals(version.toString(), expected.getWords(), layer1Words);
+        }
+    }
+
+    private static BitArray create(BitArrayVersion version) {
+        // Singleton arrays have no words
+        return version.createArray(SIZE, new int[version == BitArrayVersion.V0 ? 0 : version.getWordsForSize(SIZE)]);
+    }
+
+    private static int toXZY(int yzx) {
+        int x = yzx & 0xF;
+        int z = (yzx >> 4) & 0xF;
+        int y = yzx >> 8;
+        return (x << 8) | (z << 4) | y;
+    }
+
+    /**
+     * Packs the values the way a Java {@code BitStorage} does, without entries spanning two longs.
+     */
+    private static long[] pack(int[] values, int bits) {
+        int valuesPerLong = 64 / bits;
+        long[] data = new long[(values.length + valuesPerLong - 1) / valuesPerLong];
+        for (int i = 0; i < values.length; i++) {
+            data[i / valuesPerLong] |= (long) values[i] << ((i % valuesPerLong) * bits);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+
+public class PingRateLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void testRefill() {
+        PingRateLimiter.TokenBucket bucket = new PingRateLimiter.TokenBucket(4, 0);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(bucket.tryAcquire(0));
+        }
+        Assert.assertFalse(bucket.tryAcquire(0));
+
+        // One token is added every quarter of a second
+        Assert.assertFalse(bucket.tryAcquire(SECOND / 8));
+        Assert.assertTrue(bucket.tryAcquire(SECOND / 4));
+        Assert.assertFalse(bucket.tryAcquire(SECOND / 4));
+
+        // Partial tokens add up over several calls
+        Assert.assertFalse(bucket.tryAcquire(SECOND / 4 + SECOND / 8));
+        Assert.assertTrue(bucket.tryAcquire(SECOND / 2));
+    }
+
+    @Test
+    public void testRefillIsCapped() {
+        PingRateLimiter.TokenBucket bucket = new PingRateLimiter.TokenBucket(2, 0);
+        // A long time without pings only fills the bucket up to its capacity
+        long now = 60 * SECOND;
+        Assert.assertTrue(bucket.tryAcquire(now));
+        Assert.assertTrue(bucket.tryAcquire(now));
+        Assert.assertFalse(bucket.tryAcquire(now));
+    }
+
+    @Test
+    public void testLimitPerAddress() throws UnknownHostException {
+        PingRateLimiter limiter = new PingRateLimiter(2, Collections.emptyList());
+        InetAddress first = InetAddress.getByName("192.0.2.1");
+        InetAddress second = InetAddress.getByName("192.0.2.2");
+
+        Assert.assertTrue(limiter.tryAcquire(first));
+        Assert.assertTrue(limiter.tryAcquire(first));
+        Assert.assertFalse(limiter.tryAcquire(first));
+        // Other addresses have their own bucket
+        Assert.assertTrue(limiter.tryAcquire(second));
+
+        Assert.assertEquals(3, limiter.getServed());
+        Assert.assertEquals(1, limiter.getDropped());
+    }
+
+    @Test
+    public void testGroupsShareLimit() throws UnknownHostException {
+        PingRateLimiter limiter = new PingRateLimiter(2, List.of("198.51.100.0/24"));
+        Assert.assertTrue(limiter.tryAcquire(InetAddress.getByName("198.51.100.1")));
+        Assert.assertTrue(limiter.tryAcquire(InetAddress.getByName("198.51.100.2")));
+        Assert.assertFalse(limiter.tryAcquire(InetAddress.getByName("198.51.100.3")));
+        Assert.assertTrue(limiter.tryAcquire(InetAddress.getByName("203.0.113.1")));
+    }
+
+    @Test
+    public void testNoLimit() throws UnknownHostException {
+        PingRateLimiter limiter = new PingRateLimiter(0, Collections.emptyList());
+        InetAddress address = InetAddress.getByName("192.0.2.1");
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(limiter.tryAcquire(address));
+        }
+        Assert.assertEquals(0, limiter.getDropped());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class HistogramTest {
+
+    @Test
+    public void testBuckets() {
+        Histogram histogram = new Histogram(1, 10, 100);
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(10);
+        histogram.record(100);
+        histogram.record(101);
+        histogram.record(5000);
+
+        Map<String, Long> buckets = histogram.getBuckets();
+        Assert.assertEquals(4, buckets.size());
+        Assert.assertEquals(2L, (long) buckets.get("<=1"));
+        Assert.assertEquals(2L, (long) buckets.get("<=10"));
+        Assert.assertEquals(1L, (long) buckets.get("<=100"));
+        Assert.assertEquals(2L, (long) buckets.get(">100"));
+
+        Assert.assertEquals(7, histogram.getCount());
+        Assert.assertEquals(5000, histogram.getMax());
+        Assert.assertEquals(5214 / 7d, histogram.getMean(), 0.0001);
+    }
+
+    @Test
+    public void testExponentialBounds() {
+        Histogram histogram = Histogram.exponential(4);
+        histogram.record(3);
+        histogram.record(9);
+        Map<String, Long> buckets = histogram.getBuckets();
+        Assert.assertArrayEquals(new String[] {"<=1", "<=2", "<=4", "<=8", ">8"}, buckets.keySet().toArray(new String[0]));
+        Assert.assertEquals(1L, (long) buckets.get("<=4"));
+        Assert.assertEquals(1L, (long) buckets.get(">8"));
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram histogram = new Histogram(10, 20, 30);
+        Assert.assertEquals(0, histogram.getPercentile(50));
+
+        for (int i = 1; i <= 100; i++) {
+            // 50 values up to 10, 40 up to 20, 9 up to 30 and one above
+            histogram.record(i <= 50 ? 5 : i <= 90 ? 15 : i <= 99 ? 25 : 40);
+        }
+        Assert.assertEquals(10, histogram.getPercentile(0));
+        Assert.assertEquals(10, histogram.getPercentile(50));
+        Assert.assertEquals(20, histogram.getPercentile(51));
+        Assert.assertEquals(20, histogram.getPercentile(90));
+        Assert.assertEquals(30, histogram.getPercentile(99));
+        // The last bucket has no upper bound, so the maximum is used
+        Assert.assertEquals(40, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testPercentileNeverAboveMax() {
+        Histogram histogram = new Histogram(100);
+        histogram.record(3);
+        histogram.record(7);
+        Assert.assertEquals(7, histogram.getPercentile(50));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class XXHash64Test {
+
+    @Test
+    public void testReferenceVectors() {
+        Assert.assertEquals(0xef46db3751d8e999L, hash(""));
+        Assert.assertEquals(0x44bc2cf5ad770999L, hash("abc"));
+        // Long enough to go through the 32 byte stripes
+        Assert.assertEquals(0xfbcea83c8a378bf1L, hash("Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    public void testOffset() {
+        byte[] data = "xxabcxx".getBytes(StandardCharsets.US_ASCII);
+        Assert.assertEquals(hash("abc"), XXHash64.hash(data, 2, 3, 0));
+    }
+
+    private static long hash(String value) {
+        return XXHash64.hash(value.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util.collection;
+
+import com.nukkitx.math.vector.Vector3i;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+public class ChunkPositionMapTest {
+
+    @Test
+    public void testChunkGrouping() {
+        ChunkPositionMap<String> map = new ChunkPositionMap<>();
+        map.put(Vector3i.from(0, 64, 0), "a");
+        map.put(Vector3i.from(15, -64, 15), "b");
+        map.put(Vector3i.from(16, 64, 0), "c");
+        // Negative coordinates belong to the chunk below zero
+        map.put(Vector3i.from(-1, 64, -1), "d");
+
+        Assert.assertEquals(4, map.size());
+        Assert.assertEquals(Set.of("a", "b"), Set.copyOf(map.getChunk(0, 0).values()));
+        Assert.assertEquals(Map.of(Vector3i.from(16, 64, 0), "c"), map.getChunk(1, 0));
+        Assert.assertEquals(Map.of(Vector3i.from(-1, 64, -1), "d"), map.getChunk(-1, -1));
+        Assert.assertTrue(map.getChunk(5, 5).isEmpty());
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        ChunkPositionMap<String> map = new ChunkPositionMap<>();
+        Vector3i position = Vector3i.from(3, 10, 4);
+        Assert.assertNull(map.put(position, "a"));
+        Assert.assertEquals("a", map.put(position, "b"));
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals("b", map.getChunk(0, 0).get(position));
+
+        // Only removed if the value matches
+        Assert.assertFalse(map.remove(position, "a"));
+        Assert.assertTrue(map.containsKey(position));
+        Assert.assertTrue(map.remove(position, "b"));
+        Assert.assertFalse(map.containsKey(position));
+        Assert.assertTrue(map.getChunk(0, 0).isEmpty());
+
+        map.put(position, "c");
+        Assert.assertEquals("c", map.remove(position));
+        Assert.assertNull(map.remove(position));
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertTrue(map.getChunk(0, 0).isEmpty());
+    }
+
+    @Test
+    public void testRemoveChunk() {
+        ChunkPositionMap<String> map = new ChunkPositionMap<>();
+        map.put(Vector3i.from(1, 0, 1), "a");
+        map.put(Vector3i.from(2, 0, 2), "b");
+        map.put(Vector3i.from(17, 0, 1), "c");
+
+        Assert.assertEquals(Set.of("a", "b"), Set.copyOf(map.removeChunk(0, 0)));
+        Assert.assertEquals(1, map.size());
+        Assert.assertNull(map.get(Vector3i.from(1, 0, 1)));
+        Assert.assertEquals("c", map.get(Vector3i.from(17, 0, 1)));
+        Assert.assertTrue(map.removeChunk(0, 0).isEmpty());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertTrue(map.getChunk(1, 0).isEmpty());
+    }
+
+    @Test
+    public void testSet() {
+        ChunkPositionSet set = new ChunkPositionSet();
+        Vector3i first = Vector3i.from(0, 0, 0);
+        Vector3i second = Vector3i.from(5, 0, 5);
+        Vector3i other = Vector3i.from(32, 0, 0);
+
+        Assert.assertTrue(set.add(first));
+        Assert.assertFalse(set.add(first));
+        Assert.assertTrue(set.add(second));
+        Assert.assertTrue(set.add(other));
+
+        Assert.assertTrue(set.remove(second));
+        Assert.assertFalse(set.remove(second));
+        Assert.assertTrue(set.contains(first));
+
+        set.removeChunk(0, 0);
+        Assert.assertFalse(set.contains(first));
+        Assert.assertTrue(set.contains(other));
+
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+    }
+}
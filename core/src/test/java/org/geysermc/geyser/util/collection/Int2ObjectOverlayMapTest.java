@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util.collection;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Int2ObjectOverlayMapTest {
+
+    private static Int2ObjectMap<String> base() {
+        Int2ObjectMap<String> base = new Int2ObjectOpenHashMap<>();
+        base.put(1, "one");
+        base.put(2, "two");
+        base.put(3, "three");
+        return base;
+    }
+
+    @Test
+    public void testOverride() {
+        Int2ObjectMap<String> base = base();
+        Int2ObjectOverlayMap<String> map = new Int2ObjectOverlayMap<>(base);
+
+        Assert.assertEquals("two", map.put(2, "TWO"));
+        Assert.assertNull(map.put(4, "four"));
+
+        Assert.assertEquals("one", map.get(1));
+        Assert.assertEquals("TWO", map.get(2));
+        Assert.assertEquals("four", map.get(4));
+        Assert.assertNull(map.get(5));
+        Assert.assertEquals(4, map.size());
+        assertIteration(map);
+
+        // The base map is never changed
+        Assert.assertEquals("two", base.get(2));
+        Assert.assertEquals(3, base.size());
+    }
+
+    @Test
+    public void testRemove() {
+        Int2ObjectMap<String> base = base();
+        Int2ObjectOverlayMap<String> map = new Int2ObjectOverlayMap<>(base);
+        map.put(2, "TWO");
+        map.put(4, "four");
+
+        // A base entry
+        Assert.assertEquals("one", map.remove(1));
+        Assert.assertFalse(map.containsKey(1));
+        Assert.assertNull(map.get(1));
+        Assert.assertNull(map.remove(1));
+        // An overridden base entry
+        Assert.assertEquals("TWO", map.remove(2));
+        Assert.assertFalse(map.containsKey(2));
+        Assert.assertNull(map.get(2));
+        // An entry only in the overlay
+        Assert.assertEquals("four", map.remove(4));
+        Assert.assertFalse(map.containsKey(4));
+        Assert.assertNull(map.remove(5));
+
+        Assert.assertEquals(1, map.size());
+        assertIteration(map);
+        Assert.assertEquals(3, base.size());
+
+        // Removed base entries can be added again
+        Assert.assertNull(map.put(1, "ONE"));
+        Assert.assertEquals("ONE", map.get(1));
+        Assert.assertEquals(2, map.size());
+        assertIteration(map);
+    }
+
+    @Test
+    public void testClear() {
+        Int2ObjectMap<String> base = base();
+        Int2ObjectOverlayMap<String> map = new Int2ObjectOverlayMap<>(base);
+        map.put(2, "TWO");
+        map.put(4, "four");
+        map.clear();
+
+        Assert.assertEquals(0, map.size());
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey(3));
+        Assert.assertFalse(map.int2ObjectEntrySet().iterator().hasNext());
+        Assert.assertEquals(3, base.size());
+
+        map.put(3, "THREE");
+        Assert.assertEquals(1, map.size());
+        assertIteration(map);
+    }
+
+    /**
+     * Makes sure iteration returns every entry exactly once, with the same value as {@link Int2ObjectOverlayMap#get(int)}.
+     */
+    private static void assertIteration(Int2ObjectOverlayMap<String> map) {
+        Int2ObjectMap<String> seen = new Int2ObjectOpenHashMap<>();
+        for (Int2ObjectMap.Entry<String> entry : map.int2ObjectEntrySet()) {
+            Assert.assertNull("Key " + entry.getIntKey() + " was returned twice", seen.put(entry.getIntKey(), entry.getValue()));
+            Assert.assertEquals(map.get(entry.getIntKey()), entry.getValue());
+        }
+        Assert.assertEquals(map.size(), seen.size());
+    }
+}
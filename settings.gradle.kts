@@ -71,6 +71,7 @@ include(":standalone")
 include(":velocity")
 include(":common")
 include(":core")
+include(":benchmarks")
 
 // Specify project dirs
 project(":api").projectDir = file("api/base")